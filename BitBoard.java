@@ -0,0 +1,312 @@
+/**
+ * Packed bitboard representation of a connect four board.
+ *
+ * Every column takes up numRows + 1 bits: one bit per slot plus an empty sentinel bit on top, so that a
+ * run of checkers can never wrap from the top of one column into the bottom of the next. Bit number
+ * (column * (numRows + 1) + row) stands for the slot at that column and row, counting rows from the bottom.
+ * Boards that fit in 64 bits (like the standard 6x7 board) use a single long per player; bigger custom
+ * boards spread the bits over several longs.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class BitBoard {
+    // the size of the board and the number of bits used by every column (including the sentinel)
+    private final int numRows;
+    private final int numColumns;
+    private final int stride;
+
+    // the number of longs needed to hold one player's checkers
+    private final int words;
+
+    // the checkers of player one (index 0) and player two (index 1)
+    private final long[][] stones;
+
+    // the number of checkers in each column
+    private final int[] heights;
+
+    // the total number of checkers on the board
+    private int count;
+
+    // scratch space used by the multi-word win check so that it doesn't allocate anything
+    private final long[] pairs;
+    private final long[] shifted;
+
+    /**
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     */
+    public BitBoard(int numRows, int numColumns) {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.stride = numRows + 1;
+        this.words = (numColumns * stride + 63) / 64;
+
+        stones = new long[2][words];
+        heights = new int[numColumns];
+        count = 0;
+
+        pairs = new long[words];
+        shifted = new long[words];
+    }
+
+    /**
+     * Creates a copy of another board.
+     */
+    public BitBoard(BitBoard other) {
+        this(other.numRows, other.numColumns);
+
+        for (int i = 0; i < words; i++) {
+            stones[0][i] = other.stones[0][i];
+            stones[1][i] = other.stones[1][i];
+        }
+
+        for (int c = 0; c < numColumns; c++) {
+            heights[c] = other.heights[c];
+        }
+
+        count = other.count;
+    }
+
+    // functions that reference the size of the board.
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumColumns() {
+        return numColumns;
+    }
+
+    // functions that reference the checkers placed so far.
+    public int getCount() {
+        return count;
+    }
+
+    public int getHeight(int column) {
+        return heights[column];
+    }
+
+    public boolean isFull() {
+        return count == numRows * numColumns;
+    }
+
+    /**
+     * Returns true if another checker fits in the given column.
+     */
+    public boolean canPlay(int column) {
+        return heights[column] < numRows;
+    }
+
+    /**
+     * Drops a checker for the given player (0 or 1) into a column.
+     * @return the row the checker landed in, or -1 if the column is full
+     */
+    public int play(int player, int column) {
+        if (heights[column] >= numRows) {
+            return -1;
+        }
+
+        int row = heights[column]++;
+        int bit = column * stride + row;
+        stones[player][bit >>> 6] |= 1L << bit;
+        count++;
+
+        return row;
+    }
+
+    /**
+     * Removes the top checker from a column, whoever it belonged to.
+     */
+    public void undo(int column) {
+        int bit = column * stride + (--heights[column]);
+        long clear = ~(1L << bit);
+        stones[0][bit >>> 6] &= clear;
+        stones[1][bit >>> 6] &= clear;
+        count--;
+    }
+
+    /**
+     * Removes every checker from the board.
+     */
+    public void clear() {
+        for (int i = 0; i < words; i++) {
+            stones[0][i] = 0;
+            stones[1][i] = 0;
+        }
+
+        for (int c = 0; c < numColumns; c++) {
+            heights[c] = 0;
+        }
+
+        count = 0;
+    }
+
+    /**
+     * Returns which player (0 or 1) owns the slot at the given column and row, or -1 if it is empty.
+     */
+    public int get(int column, int row) {
+        int bit = column * stride + row;
+
+        if ((stones[0][bit >>> 6] & (1L << bit)) != 0) {
+            return 0;
+        }
+
+        if ((stones[1][bit >>> 6] & (1L << bit)) != 0) {
+            return 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the long at the given index of a player's packed checkers.
+     */
+    public long getWord(int player, int index) {
+        return stones[player][index];
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Returns a key that identifies the position.
+     *
+     * On boards that fit in a single long, player one's checkers plus the mask of all checkers is unique for
+     * every position (each column reads as its checkers plus a single bit above them). Bigger boards mix the
+     * same value from every long into a 64-bit hash.
+     */
+    public long key() {
+        if (words == 1) {
+            return stones[0][0] + (stones[0][0] | stones[1][0]);
+        }
+
+        long h = 0;
+        for (int i = 0; i < words; i++) {
+            long k = stones[0][i] + (stones[0][i] | stones[1][i]);
+            h = (h ^ k) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+
+        return h;
+    }
+
+    /**
+     * Checks if dropping a checker for the given player into a column would connect four, without playing it.
+     */
+    public boolean isWinningMove(int player, int column) {
+        int row = heights[column];
+
+        if (row >= numRows) {
+            return false;
+        }
+
+        // vertical: the three checkers right below
+        if (row >= 3 && has(player, column, row - 1) && has(player, column, row - 2) && has(player, column, row - 3)) {
+            return true;
+        }
+
+        // horizontal and both diagonals: count matching checkers on either side of the new one
+        for (int dy = -1; dy <= 1; dy++) {
+            if (run(player, column, row, 1, dy) + run(player, column, row, -1, -dy) >= 3) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the given player's checkers in a row starting next to (column, row) and stepping by (dx, dy).
+     */
+    private int run(int player, int column, int row, int dx, int dy) {
+        int n = 0;
+        int c = column + dx;
+        int r = row + dy;
+
+        while (n < 3 && c >= 0 && c < numColumns && r >= 0 && r < numRows && has(player, c, r)) {
+            n++;
+            c += dx;
+            r += dy;
+        }
+
+        return n;
+    }
+
+    /**
+     * Returns true if the given player has a checker at (column, row).
+     */
+    private boolean has(int player, int column, int row) {
+        int bit = column * stride + row;
+        return (stones[player][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Checks if the given player has four checkers in a row anywhere on the board.
+     *
+     * Shifting the board by one step in a direction and and-ing it with itself leaves a bit for every pair
+     * of checkers in that direction; doing the same with a double step on the pairs leaves a bit for every
+     * four in a row. The directions are 1 (vertical), stride (horizontal), stride - 1 and stride + 1 (diagonals).
+     */
+    public boolean isWin(int player) {
+        long[] b = stones[player];
+
+        // fast path for boards that fit in a single long
+        if (words == 1) {
+            return isWin(b[0], numRows);
+        }
+
+        return fourInARow(b, 1) || fourInARow(b, stride) || fourInARow(b, stride - 1) || fourInARow(b, stride + 1);
+    }
+
+    /**
+     * Checks if the checkers of one player, packed into a single long as described above, have four in a row.
+     */
+    public static boolean isWin(long b, int numRows) {
+        int stride = numRows + 1;
+        return fourInARow(b, 1) || fourInARow(b, stride) || fourInARow(b, stride - 1) || fourInARow(b, stride + 1);
+    }
+
+    /**
+     * Checks for four in a row in one direction on a single-word board.
+     */
+    private static boolean fourInARow(long b, int d) {
+        long m = b & (b >>> d);
+        return (m & (m >>> (2 * d))) != 0;
+    }
+
+    /**
+     * Checks for four in a row in one direction on a multi-word board.
+     */
+    private boolean fourInARow(long[] b, int d) {
+        // pairs = b & (b >> d)
+        shiftRight(b, d, pairs);
+        for (int i = 0; i < words; i++) {
+            pairs[i] &= b[i];
+        }
+
+        // any bit left in pairs & (pairs >> 2d) means four in a row
+        shiftRight(pairs, 2 * d, shifted);
+        for (int i = 0; i < words; i++) {
+            if ((pairs[i] & shifted[i]) != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Shifts a multi-word bitboard right (towards bit 0) by s bits and writes the result into dst.
+     */
+    private void shiftRight(long[] src, int s, long[] dst) {
+        int wordShift = s >>> 6;
+        int bitShift = s & 63;
+
+        for (int i = 0; i < words; i++) {
+            int j = i + wordShift;
+            long lo = j < words ? src[j] >>> bitShift : 0;
+            long hi = (bitShift != 0 && j + 1 < words) ? src[j + 1] << (64 - bitShift) : 0;
+            dst[i] = lo | hi;
+        }
+    }
+}
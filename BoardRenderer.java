@@ -0,0 +1,276 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+
+/**
+ * Draws the connect four board (background, stars, holes and column lines) onto any Graphics.
+ *
+ * It does not need a window, so it can also draw into an offscreen image. It also draws the checkers of a game
+ * on top of the board, straight from the game's packed cells, with one shared Checker per player for their look.
+ *
+ * The board never changes during a game, so it is drawn once into a cached image and every repaint after that
+ * is a single copy of the image, however many stars and holes it has. With a screen, the image is kept in video
+ * memory, so the copy stays cheap even for a 4K board. The cache is rebuilt when the size or the color of the
+ * board changes, and the board is laid out again only when its size changes.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class BoardRenderer {
+    // size of the area being drawn
+    private int width;
+    private int height;
+
+    // size of the game board
+    private final int numRows;
+    private final int numColumns;
+
+    // size of the holes in the board
+    private int radius;
+
+    // color of the board
+    private Color boardColor;
+
+    // in Space Mode, the stars that decorate the background of the game (null if none), placed for the size the
+    // renderer was created with and spread out with the board when it grows
+    private final ArrayList<Integer> starsX;
+    private final ArrayList<Integer> starsY;
+    private final int starsWidth;
+    private final int starsHeight;
+
+    // the board drawn once, copied on every repaint (null until the next repaint after a change)
+    private Image cache;
+
+    // the screen the cache was made for, if it is kept in video memory (null without a screen)
+    private GraphicsConfiguration screen;
+
+    // the center of every column and every row (row 0 at the bottom), worked out once per size
+    private final int[] columnX;
+    private final int[] rowY;
+
+    /**
+     * @param width         width of the area being drawn
+     * @param height        height of the area being drawn
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     * @param radius        radius of the holes
+     * @param boardColor    color of the board
+     * @param starsX        x-coordinates of the stars (null in Custom Mode)
+     * @param starsY        y-coordinates of the stars (null in Custom Mode)
+     */
+    public BoardRenderer(int width, int height, int numRows, int numColumns, int radius, Color boardColor,
+                         ArrayList<Integer> starsX, ArrayList<Integer> starsY) {
+        this.width = width;
+        this.height = height;
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.radius = radius;
+        this.boardColor = boardColor;
+        this.starsX = starsX;
+        this.starsY = starsY;
+        this.starsWidth = width;
+        this.starsHeight = height;
+
+        columnX = new int[numColumns];
+        rowY = new int[numRows];
+        placeCells();
+    }
+
+    /**
+     * Works out the center of every column and row for the current size, as ConnectGUI has always placed checkers.
+     */
+    private void placeCells() {
+        for (int c = 0; c < numColumns; c++) {
+            columnX[c] = (int) (width*(1 + 2*c)/((float)numColumns*2));
+        }
+
+        for (int r = 0; r < numRows; r++) {
+            rowY[r] = (int) (height - height*(1 + 2*r)/((float)numRows*2));
+        }
+    }
+
+    // functions that reference where the checkers go.
+    public int getCellX(int column) {
+        return columnX[column];
+    }
+
+    public int getCellY(int row) {
+        return rowY[row];
+    }
+
+    // functions that reference the size of the board.
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Changes the size of the area being drawn, keeping the size of the holes.
+     */
+    public void setSize(int width, int height) {
+        setSize(width, height, radius);
+    }
+
+    /**
+     * Changes the size of the area being drawn and of the holes, laying the board out again if either changed.
+     */
+    public void setSize(int width, int height, int radius) {
+        if (width != this.width || height != this.height || radius != this.radius) {
+            this.width = width;
+            this.height = height;
+            this.radius = radius;
+            cache = null;
+            placeCells();
+        }
+    }
+
+    /**
+     * Changes the color of the board.
+     */
+    public void setBoardColor(Color boardColor) {
+        if (!boardColor.equals(this.boardColor)) {
+            this.boardColor = boardColor;
+            cache = null;
+        }
+    }
+
+    /**
+     * Draws the empty board from the cached image, drawing the image first if needed.
+     */
+    public void drawBoard(Graphics g) {
+        if (cache == null) {
+            cache = createImage(width, height);
+            paintCache();
+        }
+
+        if (screen == null) {
+            g.drawImage(cache, 0, 0, null);
+            return;
+        }
+
+        // video memory can be taken away at any time (the screen mode changes, the computer wakes up): when that
+        // happens the board is drawn into the image again, and copied again if it happened during the copy
+        VolatileImage image = (VolatileImage) cache;
+        do {
+            int state = image.validate(screen);
+
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                cache = image = screen.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+                state = VolatileImage.IMAGE_RESTORED;
+            }
+
+            if (state == VolatileImage.IMAGE_RESTORED) {
+                paintCache();
+            }
+
+            g.drawImage(image, 0, 0, null);
+        } while (image.contentsLost());
+    }
+
+    /**
+     * Draws the board shape by shape into the cached image.
+     */
+    private void paintCache() {
+        Graphics cg = cache.getGraphics();
+        paintBoard(cg);
+        cg.dispose();
+    }
+
+    /**
+     * Draws every checker of a game in its cell. Nothing is allocated: the cells are read from the game's board
+     * and every checker is a copy of its player's sprite.
+     * @param looks     the checker whose look each player's checkers are drawn with, indexed by player
+     */
+    public void drawCheckers(Graphics g, GameState game, Checker[] looks) {
+        drawCheckers(g, game, looks, null);
+    }
+
+    /**
+     * Draws the checkers of a game that have landed, leaving out the ones still falling.
+     * @param looks     the checker whose look each player's checkers are drawn with, indexed by player
+     * @param heights   the number of checkers that have landed in every column (null for all of them)
+     */
+    public void drawCheckers(Graphics g, GameState game, Checker[] looks, int[] heights) {
+        BitBoard board = game.getBoard();
+
+        for (int c = 0; c < numColumns; c++) {
+            int landed = heights != null ? heights[c] : game.getHeight(c);
+
+            for (int r = 0; r < landed; r++) {
+                looks[board.get(c, r)].drawSpriteAt(g, columnX[c], rowY[r]);
+            }
+        }
+    }
+
+    /**
+     * Creates an opaque image in video memory (so copying it is as fast as possible), or a plain image when
+     * there is no screen.
+     */
+    private Image createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            return screen.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+        }
+
+        screen = null;
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Draws the empty board shape by shape, without the cache.
+     */
+    public void paintBoard(Graphics g) {
+        // initialize row, column, and x, y location variables for board
+        int r;
+        int c;
+        float locX;
+        float locY;
+
+        // set the color to whatever the user input as the board color or the default value
+        g.setColor(boardColor);
+
+        // fill the entire screen as that color
+        g.fillRect(0, 0, width, height);
+
+        // change the color to white for stars (in SPACE MODE) and holes in the board
+        g.setColor(Color.WHITE);
+
+        // if starsX and starsY have been initialized (in space mode)
+        if (starsX != null && starsY != null) {
+
+            // draw every star found in the array, spread out and grown with the board
+            int size = Math.max(1, radius / 20);
+            for (int i = 0; i < 500; i++) {
+                g.drawOval(starsX.get(i) * width / starsWidth, starsY.get(i) * height / starsHeight, size, size);
+            }
+        }
+
+        // for every row and every column
+        for (c = 0; c < numColumns; c++) {
+
+            for (r = 0; r < numRows; r++) {
+                // set the x,y location of each white hole
+                locX = width*(1 + 2*c)/((float)numColumns*2) - radius;
+                locY = height*(1 + 2*r)/((float)numRows*2) - radius;
+
+                // draw the white hole
+                g.fillOval((int)locX, (int)locY, radius*2, radius*2);
+            }
+        }
+
+        // draws lines between each column, as thick as the holes are big
+        int line = Math.max(2, radius / 10);
+        for (c = 0; c < numColumns; c++) {
+            locX = width*(c/(float)numColumns) - line/2;
+            g.fillRect((int)locX, 0, line, height);
+        }
+
+    }
+}
@@ -8,20 +8,23 @@ import java.awt.Graphics;
  */
 
 public class Checker {
+    // colors of the suns and moons in SPACE MODE
+    private static final Color SUN_BACKGROUND = Color.decode("#FF3E3E");
+    private static final Color SUN_DETAILS = Color.decode("#F8FF62");
+    private static final Color MOON_DARK = Color.decode("#005F8B");
+    private static final Color MOON_LIGHT = Color.decode("#E6E6E6");
+
     // initialize variables
     protected double x, y, r; // position and radius
     protected Color c; // color of the checker
 
-    // pointers to the checker located next to any given checker on the board (null if none)
-    protected Checker below;
-    protected Checker above;
-    protected Checker left;
-    protected Checker right;
-
     // classifiers specifying if a checker is being used in SPACE MODE
     protected boolean moon;
     protected boolean sun;
 
+    // the pre-drawn image of this checker, found on the first drawSprite call
+    private Image sprite;
+
     /**
      * @param x		initial x coordinate
      * @param y		initial y coordinate
@@ -33,11 +36,6 @@ public class Checker {
         this.r = 20; // default value if not provided
         this.c = c;
 
-        this.below = null;
-        this.above = null;
-        this.left = null;
-        this.right = null;
-
         this.moon = false;
         this.sun = false;
     }
@@ -54,11 +52,6 @@ public class Checker {
         this.r = r;
         this.c = c;
 
-        this.below = null;
-        this.above = null;
-        this.left = null;
-        this.right = null;
-
         this.moon = false;
         this.sun = false;
     }
@@ -75,11 +68,6 @@ public class Checker {
         this.r = 20;
         this.c = c;
 
-        this.below = null;
-        this.above = null;
-        this.left = null;
-        this.right = null;
-
         // if the program passes in a value of 1, draw suns
         if (spaceMode == 1) {
             this.sun = true;
@@ -91,34 +79,20 @@ public class Checker {
         }
     }
 
-    // functions that reference the checker below the current checker.
-    public Checker getBelow() {
-        return below;
-    }
-
-    public void setBelow(Checker below) { this.below = below; }
-
-    // functions that reference the checker above the current checker.
-    public Checker getAbove() {
-        return above;
-    }
-
-    public void setAbove(Checker above) { this.above = above; }
-
-    // functions that reference the checker left of the current checker.
-    public Checker getLeft() {
-        return left;
-    }
-
-    public void setLeft(Checker left) { this.left = left; }
+    /**
+     * @param x		        initial x coordinate
+     * @param y		        initial y coordinate
+     * @param r             initial radius
+     * @param c             initial color
+     * @param kind          CheckerSprites.PLAIN, SUN or MOON
+     */
+    public Checker(double x, double y, double r, Color c, int kind) {
+        this(x, y, r, c);
 
-    // functions that reference the checker right of the current checker.
-    public Checker getRight() {
-        return right;
+        this.sun = kind == CheckerSprites.SUN;
+        this.moon = kind == CheckerSprites.MOON;
     }
 
-    public void setRight(Checker right) { this.right = right; }
-
     // functions that reference the position of the checker.
     public double getX() {
         return x;
@@ -136,9 +110,40 @@ public class Checker {
         this.y = y;
     }
 
+    /**
+     * Returns CheckerSprites.SUN, MOON or PLAIN depending on how the checker looks.
+     */
+    public int getKind() {
+        return sun ? CheckerSprites.SUN : (moon ? CheckerSprites.MOON : CheckerSprites.PLAIN);
+    }
+
+    /**
+     * Draws the checker by copying its pre-drawn image from the CheckerSprites cache.
+     * @param g
+     */
+    public void drawSprite(Graphics g) {
+        drawSpriteAt(g, (int)x, (int)y);
+    }
+
+    /**
+     * Draws a checker that looks like this one centered on (x, y), so that one checker per look (a flyweight) can
+     * draw every checker on the board with that look.
+     * @param g
+     * @param x     x coordinate of the center
+     * @param y     y coordinate of the center
+     */
+    public void drawSpriteAt(Graphics g, int x, int y) {
+        if (sprite == null) {
+            sprite = CheckerSprites.get(getKind(), c, r);
+        }
+
+        int ext = CheckerSprites.extent(r);
+        g.drawImage(sprite, x - ext, y - ext, null);
+    }
+
 
     /**
-     * Draws the checker on the graphics.
+     * Draws the checker on the graphics shape by shape.
      * @param g
      */
     public void draw(Graphics g) {
@@ -146,9 +151,9 @@ public class Checker {
         g.drawOval((int)(x-r-1), (int)(y-r-1), (int)(2*r+2), (int)(2*r+2));
 
         if (sun) {
-            g.setColor(Color.decode("#FF3E3E")); // background of checker
+            g.setColor(SUN_BACKGROUND); // background of checker
             g.fillOval((int)(x-r), (int)(y-r), (int)(2*r), (int)(2*r));
-            g.setColor(Color.decode("#F8FF62")); // details of checker
+            g.setColor(SUN_DETAILS); // details of checker
             g.fillOval((int)(x-0.5*r), (int)(y-0.5*r), (int)(r), (int)(r));
 
             // upper and lower rays
@@ -161,15 +166,15 @@ public class Checker {
         }
 
         else if (moon) {
-            g.setColor(Color.decode("#005F8B")); // background of checker
+            g.setColor(MOON_DARK); // background of checker
             g.fillOval((int)(x-r), (int)(y-r), (int)(2*r), (int)(2*r));
 
             // light side of the moon
-            g.setColor(Color.decode("#E6E6E6"));
+            g.setColor(MOON_LIGHT);
             g.fillOval((int)(x-11*r/15), (int)(y-11*r/15), (int)(3*r/2), (int)(3*r/2));
 
             // dark side of the moon
-            g.setColor(Color.decode("#005F8B"));
+            g.setColor(MOON_DARK);
             g.fillOval((int)(x-9*r/15), (int)(y-9*r/15), (int)(3*r/2), (int)(3*r/2));
         }
 
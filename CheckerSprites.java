@@ -0,0 +1,74 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * Cache of pre-drawn checker images, one per look (sun, moon or plain), color and radius.
+ *
+ * Each look is drawn shape by shape only once, into a translucent image that matches the screen; after that,
+ * drawing a checker is a single copy of its image. The cache is only used from the event dispatch thread.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class CheckerSprites {
+    // the kinds of checkers
+    public static final int PLAIN = 0;
+    public static final int SUN = 1;
+    public static final int MOON = 2;
+
+    // images drawn so far, keyed on the exact bits of the radius, then on kind and color
+    private static final HashMap<Long, HashMap<Long, Image>> sprites = new HashMap<Long, HashMap<Long, Image>>();
+
+    /**
+     * Returns the distance from the center of a checker to the edge of its image, which leaves room for the
+     * outline and the rays of the sun.
+     */
+    public static int extent(double r) {
+        return (int) Math.ceil(1.55 * r) + 2;
+    }
+
+    /**
+     * Returns the image of a checker, drawing it first if it isn't cached yet. The center of the checker is
+     * extent(r) pixels from the left and top of the image.
+     */
+    public static Image get(int kind, Color c, double r) {
+        // the radius gets a level of its own, so that radii differing only in their fractions never share an image
+        HashMap<Long, Image> sized = sprites.computeIfAbsent(Double.doubleToLongBits(r), k -> new HashMap<Long, Image>());
+
+        long key = ((long) kind << 32) | (c.getRGB() & 0xFFFFFFFFL);
+        Image sprite = sized.get(key);
+
+        if (sprite == null) {
+            int ext = extent(r);
+            sprite = createImage(2 * ext, 2 * ext);
+
+            // draw a checker of this look centered in the image
+            Graphics g = sprite.getGraphics();
+            new Checker(ext, ext, r, c, kind).draw(g);
+            g.dispose();
+
+            sized.put(key, sprite);
+        }
+
+        return sprite;
+    }
+
+    /**
+     * Empties the cache.
+     */
+    public static void clear() {
+        sprites.clear();
+    }
+
+    /**
+     * Creates a translucent image that matches the screen, or a plain one when there is no screen.
+     */
+    private static Image createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
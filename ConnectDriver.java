@@ -1,5 +1,7 @@
 import java.awt.*;
+import java.io.IOException;
 import java.util.Scanner;
+import javax.swing.SwingUtilities;
 
 /**
  * Driver for the Graphics and the GUI if the user chooses to use their own parameters.
@@ -9,6 +11,15 @@ import java.util.Scanner;
 
 public class ConnectDriver extends ConnectGUI {
     public static void main(String[] args) {
+        // write out snapshots of the move and frame timings, if they are measured
+        Metrics.startReporting();
+
+        // with any flags, skip the prompts and start straight from the flags and config file
+        if (args.length > 0) {
+            launch(args);
+            return;
+        }
+
         // Read from user for parameter choices
         Scanner scanner = new Scanner(System.in);
         String input;
@@ -19,6 +30,7 @@ public class ConnectDriver extends ConnectGUI {
         Color p1Color;
         Color p2Color;
         Color boardColor;
+        int computerPlayer;
 
         // Introduce the user to the interface
         System.out.println("Welcome to Connect Four! Would you like to play with our SPACE settings or make your own?");
@@ -29,10 +41,36 @@ public class ConnectDriver extends ConnectGUI {
             System.out.println("ERROR. Remember, your commands are \"SPACE\" to play with space settings, \"CUSTOM\" to play with your own settings, and \"QUIT\" to leave.");
         }
 
+        // unless they quit, ask if they want to play against the computer
+        computerPlayer = GameState.NONE;
+
+        if (!input.equals("QUIT")) {
+            String mode = input;
+
+            System.out.println("Would you like to play against the computer?");
+            System.out.println("Type \"NONE\" for two players, \"ONE\" to let the computer move first, or \"TWO\" to let the computer move second.");
+
+            while (!(input = scanner.nextLine()).equals("NONE") && !(input).equals("ONE") && !(input).equals("TWO")) {
+                System.out.println("ERROR. Type \"NONE\" for two players, \"ONE\" to let the computer move first, or \"TWO\" to let the computer move second.");
+            }
+
+            if (input.equals("ONE")) {
+                computerPlayer = GameState.PLAYER_ONE;
+                System.out.println("The computer will play as Player 1.");
+            }
+
+            else if (input.equals("TWO")) {
+                computerPlayer = GameState.PLAYER_TWO;
+                System.out.println("The computer will play as Player 2.");
+            }
+
+            input = mode;
+        }
+
         // if they choose space, play Space Mode
         if (input.equals("SPACE")) {
             System.out.println("Everything's initialized! Click the 'q' character to quit.");
-            new ConnectGUI(); // open the Graphics window
+            new ConnectGUI(computerPlayer); // open the Graphics window
         }
 
         // if they choose custom, allow them to input their own parameters
@@ -163,8 +201,37 @@ public class ConnectDriver extends ConnectGUI {
             System.out.println("Everything's initialized! Click the 'q' character to quit.");
 
             // after identifying every custom variable, start the graphics window
-            new ConnectGUI(row, column, p1Color, p2Color, boardColor);
+            new ConnectGUI(row, column, p1Color, p2Color, boardColor, computerPlayer);
+
+        }
+    }
 
+    /**
+     * Opens the game window from command-line flags and a config file, without asking anything (see LaunchOptions)
+     * @param args the flags
+     */
+    private static void launch(String[] args) {
+        try {
+            LaunchOptions options = new LaunchOptions(args);
+            options.launch();
+
+            // quit once the window has been shown, when only the launch itself is wanted
+            if (options.isExit()) {
+                SwingUtilities.invokeLater(() -> System.exit(0));
+            }
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+            System.exit(1);
+        }
+        catch (IOException e) {
+            System.err.println("Couldn't read the config file -- " + e.getMessage());
+            System.exit(1);
+        }
+        catch (HeadlessException e) {
+            System.err.println("There is no display to open the window on");
+            System.exit(1);
         }
     }
 }
@@ -1,5 +1,13 @@
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.swing.SwingWorker;
 
 /**
  * GUI that displays all of the checkers and determines when a player wins.
@@ -7,9 +15,22 @@ import java.util.ArrayList;
  * @author James Quirk, Dartmouth DALI Developer Challenge!
  */
 public class ConnectGUI extends DrawingGUI {
-    // create graphics window of specified size
-    private static final int width = 800;
-    private static final int height = 600;
+    // size the graphics window opens at; it can be resized, and the board grows or shrinks with it
+    private static final int DEFAULT_WIDTH = 800;
+    private static final int DEFAULT_HEIGHT = 600;
+
+    // drawing with no scaling at all, so that every device pixel is drawn once
+    private static final AffineTransform DEVICE_PIXELS = new AffineTransform();
+
+    // the file 's' saves the game to and 'l' loads it from
+    public static final String SAVE_FILE = "saved.game";
+
+    // encodes and writes the snapshots taken with 'i' one at a time, so the window never waits for them
+    private static final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // store the variables that correspond to each player's and the background's color
     private Color p1Color;
@@ -23,14 +44,12 @@ public class ConnectGUI extends DrawingGUI {
     private int numRows;
     private int numColumns;
 
-    // a boolean that indicates if a player has won a game by connecting four checkers
-    private boolean winner;
-
-    // stores the size of the checkers
+    // stores the size of the checkers in the window it opens at
     private int radius;
 
-    // a variable that counts the number of checkers placed in the board so that if the board is filled, it announces a draw
-    private int globalCount;
+    // device pixels per window pixel (2 on most HiDPI screens): the board is laid out and drawn in device pixels,
+    // so it stays sharp instead of being drawn small and blown up
+    private double scale = 1;
 
     // a boolean that indicates if the user is playing in Space Mode
     private boolean spaceMode;
@@ -39,25 +58,61 @@ public class ConnectGUI extends DrawingGUI {
     private ArrayList<Integer> starsX;
     private ArrayList<Integer> starsY;
 
-    // list of all checkers placed at indices that correspond to their locations (null if none)
-    private ArrayList<Checker> checkers;
+    // the look of each player's checkers (sun, moon or plain, and color), shared by all of their checkers: the
+    // checkers themselves are only the cells of the game, so playing a move allocates nothing
+    private Checker[] looks;
+
+    // headless engine holding the rules and state of the game (landing rows, wins, draws)
+    private GameState game;
+
+    // draws the board (background, stars, holes and column lines)
+    private BoardRenderer renderer;
+
+    // animates the checkers falling into their cells, any number at once
+    private DropAnimator animator;
+
+    // the player the computer plays for (GameState.PLAYER_ONE or PLAYER_TWO), or GameState.NONE if both players are human
+    private int computerPlayer;
+
+    // the engine that picks the computer's moves, using every core (null if both players are human)
+    private Engine engine;
+
+    // a boolean that indicates the computer is still choosing its move, so clicks are ignored until it is done
+    private boolean thinking;
+
+    // every move of every game is recorded in this journal, shared by all windows (null if it couldn't be opened
+    // or moves aren't recorded), and the file it is opened from (null to record nothing)
+    private static MoveJournal journal;
+    private static boolean journalOpened;
+    private static String journalFile = MoveJournal.DEFAULT_FILE;
+
+    // identifies this game in the journal
+    private long gameId = ThreadLocalRandom.current().nextLong();
+
+    // counts the games played in this window, so that a move the computer found for an earlier game is dropped
+    private int round;
 
     /**
      * Activates the graphics window in SPACE MODE because no arguments specified means CUSTOM mode was not chosen.
      */
     public ConnectGUI() {
+        this(GameState.NONE);
+    }
+
+    /**
+     * Activates the graphics window in SPACE MODE with the computer playing for one of the players.
+     * @param computerPlayer the player the computer plays for, or GameState.NONE for two human players
+     */
+    public ConnectGUI(int computerPlayer) {
         // start running the timer for the graphics
-        super("Default Run", width, height);
+        super("Default Run", DEFAULT_WIDTH, DEFAULT_HEIGHT);
 
         // set board size
         numRows = 6;
         numColumns = 7;
-        checkers = new ArrayList<Checker>(numRows * numColumns);
 
-        // initialize the null checkers in each slot of the array
-        for (int i = 0; i < numRows * numColumns; i++) {
-            checkers.add(null);
-        }
+        // empty game of the same size
+        game = new GameState(numRows, numColumns);
 
         // set colors for both players and the board
         p1Color = Color.RED;
@@ -67,15 +122,9 @@ public class ConnectGUI extends DrawingGUI {
         // default radius
         radius = 20;
 
-        // no checkers yet, so count is 0
-        globalCount = 0;
-
         // start with player 1, so true
         player1 = true;
 
-        // no one has one yet, so false
-        winner = false;
-
         // Space Mode is activated
         spaceMode = true;
 
@@ -83,26 +132,42 @@ public class ConnectGUI extends DrawingGUI {
         starsX = new ArrayList<Integer>(500);
 
         for (int i = 0; i < 500; i++) {
-            starsX.add((int)(Math.random()*width));
+            starsX.add((int)(Math.random()*DEFAULT_WIDTH));
         }
 
         // initialize the y-coordinate of each star in the array
         starsY = new ArrayList<Integer>(500);
 
         for (int i = 0; i < 500; i++) {
-            starsY.add((int)(Math.random()*height));
+            starsY.add((int)(Math.random()*DEFAULT_HEIGHT));
         }
 
-        // start the timer
-        startTimer();
+        renderer = new BoardRenderer(DEFAULT_WIDTH, DEFAULT_HEIGHT, numRows, numColumns, radius, boardColor, starsX, starsY);
+        animator = new DropAnimator(numRows, numColumns);
+        layoutBoard();
+
+        // the timer is left off: the window repaints when something changes, and the timer only runs while
+        // checkers are falling, drawing a frame every 1/60 of a second
+        setTimerDelay(1000 / DropAnimator.FRAMES_PER_SECOND);
+
+        // let the computer move first if it plays for Player 1
+        setUpComputer(computerPlayer);
     }
 
     /**
      * Activates the graphics window in CUSTOM MODE because arguments being specified means CUSTOM mode was chosen.
      */
     public ConnectGUI(int numRows, int numColumns, Color p1Color, Color p2Color, Color boardColor) {
+        this(numRows, numColumns, p1Color, p2Color, boardColor, GameState.NONE);
+    }
+
+    /**
+     * Activates the graphics window in CUSTOM MODE with the computer playing for one of the players.
+     * @param computerPlayer the player the computer plays for, or GameState.NONE for two human players
+     */
+    public ConnectGUI(int numRows, int numColumns, Color p1Color, Color p2Color, Color boardColor, int computerPlayer) {
         // same layout as the initialization found above
-        super("Custom Run", width, height);
+        super("Custom Run", DEFAULT_WIDTH, DEFAULT_HEIGHT);
 
         this.numRows = numRows;
         this.numColumns = numColumns;
@@ -111,24 +176,67 @@ public class ConnectGUI extends DrawingGUI {
         this.p2Color = p2Color;
         this.boardColor = boardColor;
 
-        globalCount = 0;
-
         radius = 20;
 
-        checkers = new ArrayList<Checker>(numRows * numColumns);
-
-        for (int i = 0; i < numRows * numColumns; i++) {
-            checkers.add(null);
-        }
+        game = new GameState(numRows, numColumns);
 
         player1 = true;
 
-        winner = false;
-
         spaceMode = false;
 
-        // start the timer
-        startTimer();
+        // no stars in Custom Mode
+        renderer = new BoardRenderer(DEFAULT_WIDTH, DEFAULT_HEIGHT, numRows, numColumns, radius, boardColor, null, null);
+        animator = new DropAnimator(numRows, numColumns);
+        layoutBoard();
+
+        setTimerDelay(1000 / DropAnimator.FRAMES_PER_SECOND);
+
+        setUpComputer(computerPlayer);
+    }
+
+    /**
+     * Creates the computer opponent (if there is one) and lets it move if it plays first
+     */
+    private void setUpComputer(int computerPlayer) {
+        this.computerPlayer = computerPlayer;
+        thinking = false;
+
+        if (computerPlayer != GameState.NONE) {
+            // boards that fit in a single long are searched exactly
+            if (Solver.canSolve(game)) {
+                ParallelSolver solver = new ParallelSolver();
+
+                // look every position up in the tablebase of this board if one has been generated, and otherwise
+                // look up the first moves in the opening book
+                OpeningBook book = null;
+                try {
+                    book = Tablebase.load(game.getNumRows(), game.getNumColumns());
+                }
+                catch (Exception e) {
+                    System.err.println("Couldn't load the tablebase from `" + Tablebase.fileName(game.getNumRows(), game.getNumColumns()) + "' -- trying the opening book");
+                }
+
+                if (book == null) {
+                    try {
+                        book = OpeningBook.load(OpeningBook.DEFAULT_FILE);
+                    }
+                    catch (Exception e) {
+                        System.err.println("Couldn't load the opening book from `" + OpeningBook.DEFAULT_FILE + "' -- playing without it");
+                    }
+                }
+
+                solver.setOpeningBook(book);
+
+                engine = solver;
+            }
+
+            // bigger boards are played with Monte Carlo tree search
+            else {
+                engine = new MonteCarloPlayer();
+            }
+
+            computerMove();
+        }
     }
 
     /**
@@ -137,74 +245,62 @@ public class ConnectGUI extends DrawingGUI {
      */
     @Override
     public void handleMousePress(int x, int y) {
-        // initialize variables
-        Color color;
-        float sizeCol;
-        float clickColumn;
-
-        // boolean functions such that if a winner has already been found, don't continue
-        if (!winner) {
-            sizeCol = 1 / (float) numColumns; // change name to avoid confusion
-            clickColumn = (float) x / (float) width;
-
-            // the low bound and high bound that define a column
-            int low = 0;
-            int high = 1;
-
-            // if the clickColumn is within the current bounds, continue, otherwise increment the bounds to test next range
-            while (clickColumn < ((float) low) * sizeCol || clickColumn >= ((float) high) * sizeCol) {
-                low++;
-                high++;
-            }
+        // if the game has already been won or drawn, or it is the computer's turn, don't continue
+        if (!game.isOver() && !thinking && game.getCurrentPlayer() != computerPlayer) {
+            long start = Metrics.now();
 
-            // the location corresponds to the spot in the graph where the new checker is stored
-            int location = low;
+            // play the column that was clicked on
+            int column = columnAt(x, width, numColumns);
+            playColumn(column);
 
-            // the count corresponds to the number of checkers in a given column
-            int count = 0;
+            // then let the computer answer
+            computerMove();
 
-            // while the column chosen (location) is still within the board and there are non-null checkers in a slot
-            while (location < numRows * numColumns && checkers.get(location) != null) {
-                // move up exactly numColumns spots to stay in the same column but shift up one row
-                location += numColumns;
+            Metrics.moveHandled(start, column);
+        }
+    }
 
-                // indicate that there is another checker below the one added
-                count++;
+    /**
+     * Drops a checker for the player whose turn it is into a column and announces the result
+     * @param low the column (starting from 0)
+     */
+    public void playColumn(int low) {
+        // if the game has already been won or drawn, don't continue
+        if (!game.isOver()) {
+            // record the move before it is played, while the game still shows the position it was played in
+            if (game.canPlay(low) && getJournal() != null) {
+                journal.record(gameId, game, low);
             }
 
-            // if the index selected would be be out of the board's range, print error.
-            if (location >= numRows * numColumns) {
+            // drop the checker into the game; count is the row it lands in (the number of checkers already below it)
+            // (timed as the win check, which is most of what playing a move costs)
+            long start = Metrics.now();
+            int count = game.play(low);
+            Metrics.winChecked(start, game.isWin());
+
+            // if the column is already full, print error.
+            if (count < 0) {
                 System.out.println("Column full! Select another column");
             }
 
             // otherwise, continue
             else {
-                // if it's Player 1's turn, set the color to Player 1's color
-                if (player1) {
-                    color = p1Color;
-                    player1 = false; // toggle to Player 2's turn
-                }
+                Metrics.played(game);
 
-                // if Player 2's turn, set the color to Player 2's color
-                else {
-                    color = p2Color;
-                    player1 = true; // toggle to Player 1's turn
-                }
+                // toggle to the other player's turn
+                player1 = !player1;
 
-                // make the new checker
-                Checker newChecker = addChecker(low, count, color);
+                // the game now holds the new checker, which is drawn falling into its cell
+                animator.drop(low, count, game.getBoard().get(low, count), System.nanoTime(), renderer);
+                setAnimating(true);
 
-                // set the neighors of the checker if they exist
-                assignNeighbors(newChecker, location);
-
-                // place the checker in the array of checkers that are drawn
-                checkers.set(location, newChecker);
-
-                // check to see if the new checker won the game
-                winner = winCheck(0, 0, newChecker);
+                // the game is finished, so write its moves out now
+                if (game.isOver() && journal != null) {
+                    journal.flush();
+                }
 
                 // if it was a win,
-                if (winner) {
+                if (game.isWin()) {
                     if (player1) { // this means we just toggled to Player 1, so it was Player 2 who played the last checker
                         System.out.println("Player 2 wins!");
                         System.out.println("Click 'p' to play again! Click 'q' to quit.");
@@ -218,7 +314,7 @@ public class ConnectGUI extends DrawingGUI {
                 }
 
                 // if the total number of checkers reaches the limit, and there is still no winner,
-                else if (globalCount == numRows*numColumns) {
+                else if (game.isDraw()) {
                     System.out.println("This game was a draw!"); // indicate a draw
                     System.out.println("Click 'p' to play again! Click 'q' to quit.");
                 }
@@ -227,92 +323,154 @@ public class ConnectGUI extends DrawingGUI {
     }
 
     /**
-     * Helper function that makes a new checker for handleMousePress
-     * @param low indicates the low bound of a column (which column we're in, starting from 0)
-     * @param count indicates the number of checkers in the selected column
+     * Sets the file moves are recorded to, or null to record nothing. Only has an effect before the first move.
      */
-    public Checker addChecker(int low, int count, Color color) {
-        // set the location of the checker that will be drawn
-        float locX = width*(1 + 2*low)/((float)numColumns*2);
-        float locY = height - height*(1 + 2*count)/((float)numRows*2);
-        Checker newChecker;
+    public static void setJournalFile(String filename) {
+        journalFile = filename;
+    }
 
-        // if in space mode, indicate moons and suns
-        if (spaceMode) {
-            if (player1) { // if Player 2 just played
-                newChecker = new Checker((int)locX, (int)locY, 2, color); // moons
+    /**
+     * Opens the move journal the first time a move is played
+     * @return the journal, or null if it couldn't be opened or moves aren't recorded
+     */
+    private static MoveJournal getJournal() {
+        if (!journalOpened && journalFile != null) {
+            journalOpened = true;
 
-            }
+            try {
+                journal = new MoveJournal(journalFile);
 
-            else { // if Player 1 just played
-                newChecker = new Checker((int)locX, (int)locY, 1, color); // suns
+                // write out whatever is left when the program exits
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        journal.close();
+                    }
+                    catch (Exception e) {
+                        System.err.println("Couldn't close the move journal -- " + e.getMessage());
+                    }
+                }));
+            }
+            catch (Exception e) {
+                System.err.println("Couldn't open the move journal `" + journalFile + "' -- moves won't be recorded");
             }
         }
 
-        // otherwise, just draw a normal checker
-        else {
-            newChecker = new Checker((int)locX, (int)locY, radius, color);
-        }
-
-        // increment the number of checkers in the system
-        globalCount++;
-        repaint();
-
-        return newChecker;
+        return journal;
     }
 
     /**
-     * Assigns the neighbors of a certain checker after initialization
+     * Lets the computer choose its move in the background (so the window stays responsive) and plays it once found
      */
-    public void assignNeighbors(Checker newChecker, int location) {
-        // if checker is not in the first column
-        if ((location % numColumns) != 0) {
-
-            // if the checker is not in the last column
-            if ((location % numColumns != numColumns - 1)) {
-
-                // if there is a checker to the left
-                if (checkers.get(location-1) != null) {
-                    // set the new checker to be the old checker's neighbor and vice versa
-                    newChecker.setLeft(checkers.get(location - 1));
-                    (checkers.get(location - 1)).setRight(newChecker);
-                }
+    public void computerMove() {
+        if (game.isOver() || game.getCurrentPlayer() != computerPlayer) {
+            return;
+        }
+
+        thinking = true;
+
+        // search a copy of the game so that the board shown is never changed by the search
+        final GameState position = new GameState(game);
+        final int searchRound = round;
 
-                // and if there is a checker to the right
-                if (checkers.get(location+1) != null) {
-                    // set the new checker to be the old checker's neighbor and vice versa
-                    newChecker.setRight(checkers.get(location + 1));
-                    (checkers.get(location + 1)).setLeft(newChecker);
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                // a search left over from before a restart may still be running, and engines search one game at a time
+                synchronized (engine) {
+                    return engine.bestMove(position);
                 }
             }
 
-            // if the checker is in the last column
-            else {
+            @Override
+            protected void done() {
+                // the board was reset while the computer was thinking, so its move belongs to the old game
+                if (searchRound != round) {
+                    return;
+                }
+
+                thinking = false;
+
+                try {
+                    playColumn(get());
 
-                // only look at the checker to the left because the checker to the "right" will be on the next row
-                if (checkers.get(location-1) != null) {
-                    newChecker.setLeft(checkers.get(location - 1));
-                    (checkers.get(location - 1)).setRight(newChecker);
+                    if (engine instanceof MonteCarloPlayer) {
+                        System.out.println("The computer ran " + (long) ((MonteCarloPlayer) engine).getRolloutsPerSecond() + " rollouts per second.");
+                    }
+                }
+                catch (Exception e) {
+                    System.err.println("The computer couldn't choose a move: " + e);
                 }
             }
+        }.execute();
+    }
+
+    /**
+     * Helper function that finds which column a click falls in for handleMousePress
+     * @param x the x coordinate of the click
+     * @param width the width of the window
+     * @param numColumns the number of columns in the board
+     */
+    public static int columnAt(int x, int width, int numColumns) {
+        // every column is width / numColumns pixels wide, so the column is x divided by that (in integers, to avoid rounding)
+        int low = (int) ((long) x * numColumns / width);
+
+        // clicks on the very edge of the window count as the outer columns
+        return Math.max(0, Math.min(numColumns - 1, low));
+    }
+
+    /**
+     * Helper function that makes the checker each player's checkers look like, drawn by the renderer in every cell
+     * they hold
+     * @param r the radius of the checkers, in device pixels
+     * @return the looks of Player 1 and Player 2, indexed by player
+     */
+    private Checker[] makeLooks(int r) {
+        // in space mode, Player 1 plays suns and Player 2 plays moons
+        if (spaceMode) {
+            return new Checker[] {new Checker(0, 0, r, p1Color, CheckerSprites.SUN), new Checker(0, 0, r, p2Color, CheckerSprites.MOON)};
         }
 
-        // if on the leftmost column
-        else {
+        // otherwise, just normal checkers
+        return new Checker[] {new Checker(0, 0, r, p1Color), new Checker(0, 0, r, p2Color)};
+    }
 
-            // only look at the right neighbor
-            if (checkers.get(location+1) != null) {
-                newChecker.setRight(checkers.get(location + 1));
-                (checkers.get(location + 1)).setLeft(newChecker);
-            }
+    /**
+     * Helper function that fits the board to the window and the screen's scaling, only called when they change
+     * (not on every repaint)
+     */
+    private void layoutBoard() {
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        scale = gc != null ? gc.getDefaultTransform().getScaleX() : 1;
+
+        // the size of the window in device pixels
+        int w = Math.max(1, (int) Math.round(width * scale));
+        int h = Math.max(1, (int) Math.round(height * scale));
+
+        // the holes and checkers grow with the window, keeping the proportions of the window it opens at
+        int r = Math.max(1, (int) Math.round(radius * Math.min(w / (double) DEFAULT_WIDTH, h / (double) DEFAULT_HEIGHT)));
+
+        // the checkers only need new images when their size changes; images of old sizes are dropped so that
+        // dragging the window's edge doesn't keep every size ever drawn
+        if (looks == null || r != renderer.getRadius()) {
+            CheckerSprites.clear();
+            looks = makeLooks(r);
         }
 
-        // if we're not on the bottom column
-        if (location >= numColumns) {
-            // mark the new checker's down neighbor and the old checker's up neighbor
-            newChecker.setBelow(checkers.get(location - numColumns));
-            (checkers.get(location - numColumns)).setAbove(newChecker);
+        renderer.setSize(w, h, r);
+    }
+
+    /**
+     * DrawingGUI method, lays the board out again for the new size of the window
+     */
+    @Override
+    public void handleResize(int width, int height) {
+        // the window can be resized before the constructor has set up the board
+        if (renderer == null) {
+            return;
         }
+
+        layoutBoard();
+        canvas.repaint();
     }
 
     /**
@@ -327,253 +485,172 @@ public class ConnectGUI extends DrawingGUI {
             System.exit(0);
         }
 
-        // allows the user to play the game again
+        // allows the user to play the game again, in the same window
         if (k == 'p') {
             System.out.println("Playing again...");
-            if (spaceMode) {
-                new ConnectGUI();
-            }
-            
-            else {
-                new ConnectGUI(this.numRows, this.numColumns, this.p1Color, this.p2Color, this.boardColor);
-            }
+            restart();
         }
-    }
 
-    /**
-     * DrawingGUI method, draws the board and all of the checkers
-     */
-    @Override
-    public void draw(Graphics g) {
-        // Draws the board
-        drawBoard(g);
-
-        // Makes each checker draw itself
-        for (Checker checker : checkers) {
-            if (checker != null) {
-                g.setColor(checker.c);
-                checker.draw(g);
-            }
+        // allows the user to save the game and pick it up again later
+        if (k == 's') {
+            save();
         }
-    }
-
-    public void drawBoard(Graphics g) {
-        // initialize row, column, and x, y location variables for board
-        int r;
-        int c;
-        float locX;
-        float locY;
-
-        // set the color to whatever the user input as the board color or the default value
-        g.setColor(boardColor);
-
-        // fill the entire screen as that color
-        g.fillRect(0, 0, width, height);
-
-        // change the color to white for stars (in SPACE MODE) and holes in the board
-        g.setColor(Color.WHITE);
-
-        // if starsX and starsY have been initialized (in space mode)
-        if (starsX != null && starsY != null) {
 
-            // draw every star found in the array
-            for (int i = 0; i < 500; i++) {
-                g.drawOval(starsX.get(i), starsY.get(i), 1, 1);
-            }
-        }
-
-        // for every row and every column
-        for (c = 0; c < numColumns; c++) {
-
-            for (r = 0; r < numRows; r++) {
-                // set the x,y location of each white hole
-                locX = width*(1 + 2*c)/((float)numColumns*2) - radius;
-                locY = height*(1 + 2*r)/((float)numRows*2) - radius;
-
-                // draw the white hole
-                g.fillOval((int)locX, (int)locY, radius*2, radius*2);
-            }
+        if (k == 'l') {
+            resume();
         }
 
-        // draws lines between each column
-        for (c = 0; c < numColumns; c++) {
-            locX = width*(c/(float)numColumns) - 1;
-            g.fillRect((int)locX, 0, 2, height);
+        // allows the user to take a picture of the board
+        if (k == 'i') {
+            snapshot();
         }
-
     }
 
     /**
-     * Checks recursively if someone wins the game when placing a new checker
+     * Saves the moves of the game so far as a move string (see PositionCodec) in SAVE_FILE
      */
-    public boolean winCheck(int i, int direction, Checker newChecker) {
-        // base case: this is the fourth item in the connection (starting from 0 and incrementing by 1)
-        if (i == 3) {
-            return true;
+    public void save() {
+        try {
+            Files.writeString(Paths.get(SAVE_FILE), PositionCodec.toMoves(game) + "\n");
+            System.out.println("Saved the game in " + SAVE_FILE + ". Click 'l' to pick it up again.");
         }
+        catch (Exception e) {
+            System.err.println("Couldn't save the game in `" + SAVE_FILE + "' -- " + e.getMessage());
+        }
+    }
 
-        // on initial call, direction will be zero. This is to indicate that we MUST check EVERY direction around a checker
-        // direction 2 indicates up right, 3 indicates right, etc. until 8 which indicates up left
-        if (direction == 0) {
-            // false because no one has won yet
-            boolean result = false;
-
-            // if the checker above and to the right of the new checker exists and has matching color, recurse to the next case
-            // direction 2 indicates that the winCheck will only look directly UP for a connection
-            // note, we skip the arbitrary "direction 1" which would mean a match above because a new checker
-            // will never have an up neighbor as it is on top as similar to a stack data structure.
-
-            // IMPORTANT NOTE: we check to the right THEN above because in order for an upper right neighbor to exist
-            // it must have a down neighbor that it stacked upon to reach that row. If conversely we checked above then
-            // right, we could be attempting to scan the right neighbor of an uninitialized, null, above neighbor
-            if (newChecker.right != null && newChecker.right.above != null && newChecker.c == newChecker.right.above.c) { // determine why highlighted
-                if (winCheck(i + 1, 2, newChecker.right.above)) {
-                    result = true;
-                }
-
-                // IMPORTANT NOTE: this second case is essential in every check but the above and below check.
-                // Fixes a problem when the user connects four by placing a middle checker
-                // If we only had the first case, if a player placed the 3rd connection in a diagonal of 4 to win, nothing would happen
-                // This case says, if there is a checker above and to the right, go there and try to make a connect 4 by going down and left
-                // In the above case of placing the 3rd connection (from the left) in a diagonal
-                // The pointer would shift to the top right most checker and attempt to find a connection in direction 6
-                // Meaning down and to the left. Every possible connect 4 will be checked.
-
-                if (winCheck(i, 6, newChecker.right.above)) {
-                    result = true;
-                }
-            }
-
-            // check to the right
-            if (newChecker.right != null && newChecker.c == newChecker.right.c) {
-                if (winCheck(i + 1, 3, newChecker.right)) {
-                    result = true;
-                }
-
-                if (winCheck(i, 7, newChecker.right)) {
-                    result = true;
-                }
-            }
-
-            // check down and to the right
-            if (newChecker.below != null && newChecker.below.right != null && newChecker.c == newChecker.below.right.c) {
-                if (winCheck(i + 1, 4, newChecker.below.right)) {
-                    result = true;
-                }
-
-                if (winCheck(i, 8, newChecker.below.right)) {
-                    result = true;
-                }
-            }
+    /**
+     * Replaces the game with the one saved in SAVE_FILE, if it was played on a board of the same size
+     */
+    public void resume() {
+        GameState saved;
 
-            // check down
-            if (newChecker.below != null && newChecker.c == newChecker.below.c) {
-                if (winCheck(i + 1, 5, newChecker.below)) {
-                    result = true;
-                }
+        try {
+            saved = PositionCodec.fromMoves(Files.readString(Paths.get(SAVE_FILE)));
+        }
+        catch (Exception e) {
+            System.err.println("Couldn't load a game from `" + SAVE_FILE + "' -- " + e.getMessage());
+            return;
+        }
 
-            }
+        if (saved.getNumRows() != numRows || saved.getNumColumns() != numColumns) {
+            System.out.println("The saved game was played on a " + saved.getNumRows() + "x" + saved.getNumColumns()
+                    + " board, but this one is " + numRows + "x" + numColumns + ".");
+            return;
+        }
 
-            // check down and to the left
-            if (newChecker.below != null && newChecker.below.left != null && newChecker.c == newChecker.below.left.c) {
-                if (winCheck(i + 1, 6, newChecker.below.left)) {
-                    result = true;
-                }
+        // replay the saved moves on an empty board, as a new game in the journal
+        newGame();
+        for (int i = 0; i < saved.getMoveCount(); i++) {
+            playColumn(saved.getMove(i));
+        }
 
-                if (winCheck(i, 2, newChecker.below.left)) {
-                    result = true;
-                }
-            }
+        // the saved checkers appear in place rather than all falling at once
+        animator.settle(game);
+        setAnimating(false);
+        canvas.repaint();
+        System.out.println("Picked up the saved game after " + saved.getMoveCount() + " moves.");
 
-            // check to the left
-            if (newChecker.left != null && newChecker.c == newChecker.left.c) {
-                if (winCheck(i + 1, 7, newChecker.left)) {
-                    result = true;
-                }
+        // let the computer move if it is its turn
+        computerMove();
+    }
 
-                if (winCheck(i, 3, newChecker.left)) {
-                    result = true;
-                }
-            }
+    /**
+     * Draws the board into an image right away, then encodes and writes it as a PNG in the background
+     */
+    public void snapshot() {
+        // drawing is quick and has to happen here, while the game can't change
+        BufferedImage image = new BufferedImage(renderer.getWidth(), renderer.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        renderer.drawBoard(g);
+        renderer.drawCheckers(g, game, looks);
+        g.dispose();
+
+        // encoding takes far longer, so it is left to the snapshot thread
+        String filename = "snapshot-" + System.currentTimeMillis() + ".png";
+        snapshotWriter.execute(() -> saveImage(image, filename, "png"));
+    }
 
-            // check up and to the left
-            if (newChecker.left != null && newChecker.left.above != null && newChecker.c == newChecker.left.above.c) {
-                if (winCheck(i + 1, 8, newChecker.left.above)) {
-                    result = true;
-                }
+    /**
+     * Clears the board for a new game, keeping the window, the drawn board, the stars and the computer's engine
+     */
+    public void restart() {
+        newGame();
 
-                if (winCheck(i, 4, newChecker.left.above)) {
-                    result = true;
-                }
-            }
+        // let the computer move first if it plays for Player 1
+        computerMove();
+    }
 
-            return result;
-        }
+    /**
+     * Helper function that empties the board for restart and resume, without letting the computer move
+     */
+    private void newGame() {
+        // empty the game, which holds every checker drawn, and stop any checker still falling
+        game.reset();
+        animator.settle(game);
+        setAnimating(false);
 
-        // if told to recurse up and to the right, only look up and to the right
-        if (direction == 2) {
-            if (newChecker.right == null || newChecker.right.above == null || newChecker.c != newChecker.right.above.c) {
-                return false;
-            }
+        // Player 1 starts again, as a new game in the journal
+        player1 = true;
+        gameId = ThreadLocalRandom.current().nextLong();
 
-            return winCheck(i+1, direction, newChecker.right.above);
-        }
+        // forget any move the computer is still looking for
+        round++;
+        thinking = false;
 
-        // if told to recurse right, only look to the right
-        if (direction == 3) {
-            if (newChecker.right == null || newChecker.c != newChecker.right.c) {
-                return false;
-            }
+        canvas.repaint();
+    }
 
-            return winCheck(i+1, direction, newChecker.right);
+    /**
+     * Runs the timer only while something on the board is moving. An idle window leaves it stopped, so the event
+     * dispatch thread sleeps until the next click or key press.
+     * @param animating true while an animation is playing
+     */
+    private void setAnimating(boolean animating) {
+        if (animating && !timer.isRunning()) {
+            startTimer();
         }
 
-        // if told to recurse down and to the right, only look up and to the right
-        if (direction == 4) {
-            if (newChecker.below == null || newChecker.below.right == null || newChecker.c != newChecker.below.right.c) {
-                return false;
-            }
-
-            return winCheck(i+1, direction, newChecker.below.right);
+        else if (!animating && timer.isRunning()) {
+            stopTimer();
         }
+    }
 
-        // if told to recurse down, only look down
-        if (direction == 5) {
-            if (newChecker.below == null || newChecker.c != newChecker.below.c) {
-                return false;
-            }
-
-            return winCheck(i+1, direction, newChecker.below);
+    /**
+     * DrawingGUI method, called by the timer while checkers are falling: moves them on and draws the frame
+     */
+    @Override
+    public void handleTimer() {
+        // only the strips the checkers fell through are drawn, right away, not the whole window
+        int areas = animator.frame(System.nanoTime(), renderer, scale);
+        canvas.renderAreas(animator.getAreas(), areas);
+
+        // once every checker has landed, there is no reason for the timer to keep running
+        if (!animator.isAnimating()) {
+            setAnimating(false);
         }
+    }
 
-        // if told to recurse down and to the left, only look down and to the left
-        if (direction == 6) {
-            if (newChecker.below == null || newChecker.below.left == null || newChecker.c != newChecker.below.left.c) {
-                return false;
-            }
-
-            return winCheck(i+1, direction, newChecker.below.left);
+    /**
+     * DrawingGUI method, draws the board and all of the checkers
+     */
+    @Override
+    public void draw(Graphics g) {
+        // the window can paint before the constructor has set up the board
+        if (renderer == null) {
+            return;
         }
 
-        // if told to recurse left, only look left
-        if (direction == 7) {
-            if (newChecker.left == null || newChecker.c != newChecker.left.c) {
-                return false;
-            }
-
-            return winCheck(i+1, direction, newChecker.left);
+        // the board is laid out in device pixels, so on a HiDPI screen it is drawn without the screen's scaling
+        if (scale != 1) {
+            ((Graphics2D) g).setTransform(DEVICE_PIXELS);
         }
 
-        // if told to recurse up and to the left, only look up and to the left
-        if (direction == 8) {
-            if (newChecker.left == null || newChecker.left.above == null || newChecker.c != newChecker.left.above.c) {
-                return false;
-            }
-
-            return winCheck(i+1, direction, newChecker.left.above);
-        }
+        // Draws the board
+        renderer.drawBoard(g);
 
-        return false;
+        // Makes each checker that has landed copy its player's pre-drawn image, then draws the ones still falling
+        renderer.drawCheckers(g, game, looks, animator.getLanded());
+        animator.draw(g, renderer, looks);
     }
-
 }
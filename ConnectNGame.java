@@ -0,0 +1,269 @@
+import java.util.Arrays;
+
+/**
+ * Headless Connect-N engine for boards far too big for GameState: any number in a row wins, and boards can be
+ * thousands of cells on each side.
+ *
+ * Only the cells that hold a checker are stored, in a LongMap keyed by cell, so memory grows
+ * with the number of checkers played rather than with the size of the board (plus one height per column). A move
+ * only checks the four lines through the cell it lands in, walking at most N - 1 cells each way, so its cost
+ * depends on N but not on the size of the board or how full it is.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class ConnectNGame {
+    // the directions a run can go in (column step, row step): vertical, horizontal and both diagonals
+    private static final int[][] DIRECTIONS = {{0, -1}, {1, 0}, {1, 1}, {1, -1}};
+
+    // the size of the board, and the number of checkers in a row that wins
+    private final int numRows;
+    private final int numColumns;
+    private final int n;
+
+    // the number of checkers in each column
+    private final int[] heights;
+
+    // the player of every occupied cell, keyed by column * numRows + row (Integer.valueOf of a player is cached,
+    // so storing one allocates nothing once the map has grown)
+    private final LongMap<Integer> cells;
+
+    // the number of checkers on the board
+    private int count;
+
+    // the columns played so far, in order, so that moves can be undone
+    private int[] history;
+
+    // the player whose turn it is, and the player who connected N (GameState.NONE if no one has yet)
+    private int currentPlayer;
+    private int winner;
+
+    // Zobrist hash of the checkers on the board, updated on every move (see Zobrist)
+    private long hash;
+
+    /**
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     * @param n             number of checkers in a row needed to win
+     */
+    public ConnectNGame(int numRows, int numColumns, int n) {
+        if (numRows < 1 || numColumns < 1 || n < 1) {
+            throw new IllegalArgumentException("Boards and runs need at least one cell");
+        }
+
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.n = n;
+
+        heights = new int[numColumns];
+        cells = new LongMap<Integer>(32);
+        history = new int[64];
+
+        currentPlayer = GameState.PLAYER_ONE;
+        winner = GameState.NONE;
+    }
+
+    // functions that reference the state of the game.
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumColumns() {
+        return numColumns;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getMoveCount() {
+        return count;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getHeight(int column) {
+        return heights[column];
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the column played on the given turn (starting from 0).
+     */
+    public int getMove(int turn) {
+        return history[turn];
+    }
+
+    public boolean isWin() {
+        return winner != GameState.NONE;
+    }
+
+    public boolean isDraw() {
+        return winner == GameState.NONE && count == (long) numRows * numColumns;
+    }
+
+    public boolean isOver() {
+        return winner != GameState.NONE || count == (long) numRows * numColumns;
+    }
+
+    /**
+     * Returns the player whose checker is in a cell, or GameState.NONE if it is empty.
+     */
+    public int get(int column, int row) {
+        if (column < 0 || column >= numColumns || row < 0 || row >= heights[column]) {
+            return GameState.NONE;
+        }
+
+        // every cell below the column's height holds a checker
+        return cells.get(key(column, row));
+    }
+
+    /**
+     * Returns true if the current player may drop a checker in the given column.
+     */
+    public boolean canPlay(int column) {
+        return winner == GameState.NONE && column >= 0 && column < numColumns && heights[column] < numRows;
+    }
+
+    /**
+     * Returns true if the current player would connect N by dropping a checker into the given column.
+     */
+    public boolean isWinningMove(int column) {
+        return canPlay(column) && connects(currentPlayer, column, heights[column]);
+    }
+
+    /**
+     * Writes every column that can currently be played into moves.
+     * @param moves     array with room for at least getNumColumns() entries
+     * @return the number of legal moves written
+     */
+    public int legalMoves(int[] moves) {
+        int m = 0;
+
+        if (winner != GameState.NONE) {
+            return 0;
+        }
+
+        for (int c = 0; c < numColumns; c++) {
+            if (heights[c] < numRows) {
+                moves[m++] = c;
+            }
+        }
+
+        return m;
+    }
+
+    /**
+     * Drops a checker for the current player into a column, checks for a win, and passes the turn.
+     * @return the row the checker landed in, or -1 if the move was not legal
+     */
+    public int play(int column) {
+        if (!canPlay(column)) {
+            return -1;
+        }
+
+        int row = heights[column]++;
+
+        if (count == history.length) {
+            history = Arrays.copyOf(history, 2 * count);
+        }
+        history[count++] = column;
+
+        cells.put(key(column, row), currentPlayer);
+        hash ^= Zobrist.key(currentPlayer, column, row);
+
+        // only runs through the new checker can have been completed
+        if (connects(currentPlayer, column, row)) {
+            winner = currentPlayer;
+        }
+
+        currentPlayer ^= 1;
+
+        return row;
+    }
+
+    /**
+     * Takes back the last move.
+     * @return the column of the move that was taken back, or -1 if there are no moves to take back
+     */
+    public int undo() {
+        if (count == 0) {
+            return -1;
+        }
+
+        int column = history[--count];
+        int row = --heights[column];
+        cells.remove(key(column, row));
+
+        // play stops the game at the first N in a row, so no earlier checker completed one
+        winner = GameState.NONE;
+        currentPlayer ^= 1;
+
+        // xor the checker out with the number it was xored in with, under the player who dropped it
+        hash ^= Zobrist.key(currentPlayer, column, row);
+
+        return column;
+    }
+
+    /**
+     * Resets the game to an empty board with player one to move, keeping the memory already allocated.
+     */
+    public void reset() {
+        Arrays.fill(heights, 0);
+        cells.clear();
+        count = 0;
+        hash = 0;
+
+        currentPlayer = GameState.PLAYER_ONE;
+        winner = GameState.NONE;
+    }
+
+    /**
+     * Returns true if a checker of the player at (column, row) would be part of N in a row, counting the cell
+     * itself whether or not it has been played.
+     */
+    private boolean connects(int player, int column, int row) {
+        for (int[] d : DIRECTIONS) {
+            int run = 1 + runLength(player, column, row, d[0], d[1]);
+
+            // vertical runs can only go down, nothing is above the top checker
+            if (d[0] != 0) {
+                run += runLength(player, column, row, -d[0], -d[1]);
+            }
+
+            if (run >= n) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the player's checkers in a row starting next to (column, row) in one direction, up to N - 1.
+     */
+    private int runLength(int player, int column, int row, int dc, int dr) {
+        int run = 0;
+
+        for (int c = column + dc, r = row + dr; run < n - 1 && get(c, r) == player; c += dc, r += dr) {
+            run++;
+        }
+
+        return run;
+    }
+
+    /**
+     * Returns the key of a cell.
+     */
+    private long key(int column, int row) {
+        return (long) column * numRows + row;
+    }
+}
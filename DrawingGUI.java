@@ -15,8 +15,8 @@ import javax.swing.*;
  * @author CBK, Spring 2015, revised to factor out the image, provide simple event handling
  */
 public class DrawingGUI extends JFrame {
-    public JComponent canvas;						// handles graphics display
-    protected int width, height;					// the size of the drawing window
+    public FlipCanvas canvas;						// handles graphics display
+    protected int width, height;					// the size of the drawing window (kept up to date as it is resized)
     protected Timer timer;							// one delay-driven event
     private static final int delay = 100;			// default delay for the timer (milliseconds)
 
@@ -49,7 +49,7 @@ public class DrawingGUI extends JFrame {
     }
 
     /**
-     * Finishes initializing the GUI for the fixed size.
+     * Finishes initializing the GUI at the given size (it can be resized after).
      *
      * @param width		window size
      * @param height	window size
@@ -58,13 +58,11 @@ public class DrawingGUI extends JFrame {
         this.width = width;
         this.height = height;
 
-        // Create a canvas for drawing into, paintComponent() is called on repaint, add our object's draw function
-        canvas = new JComponent() {
-            public void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                draw(g);  //our object's drawing method call
-            }
-        };
+        // Create a canvas for drawing into, it calls our object's draw function into its back buffer on repaint
+        canvas = new FlipCanvas(this);
+
+        // key presses go to the frame, not the canvas
+        canvas.setFocusable(false);
 
         // Listen for events
         canvas.addMouseListener(new MouseAdapter() {
@@ -77,6 +75,13 @@ public class DrawingGUI extends JFrame {
                 handleMouseMotion(event.getPoint().x, event.getPoint().y);
             }
         });
+        canvas.addComponentListener(new ComponentAdapter() {
+            public void componentResized(ComponentEvent event) {
+                DrawingGUI.this.width = canvas.getWidth();
+                DrawingGUI.this.height = canvas.getHeight();
+                handleResize(canvas.getWidth(), canvas.getHeight());
+            }
+        });
         addKeyListener(new KeyAdapter() {
             public void keyTyped(KeyEvent event) {
                 handleKeyPress(event.getKeyChar());
@@ -150,6 +155,14 @@ public class DrawingGUI extends JFrame {
     public void handleKeyPress(char key) {
     }
 
+    /**
+     * Method to handle the window being resized, to be overridden by subclasses.
+     * @param width		new width of the canvas
+     * @param height	new height of the canvas
+     */
+    public void handleResize(int width, int height) {
+    }
+
     /**
      * Method to respond to the timer going off, to be overridden by subclasses.
      */
@@ -0,0 +1,272 @@
+import java.awt.Graphics;
+
+/**
+ * Animates checkers dropping into their cells: each one falls from above the board with gravity, bounces on the
+ * checker below it, and comes to rest. Any number of checkers can be falling at once, in any columns.
+ *
+ * The game itself holds every checker as soon as it is played; the animator only decides where the falling ones
+ * are drawn, and how many checkers of every column have landed and are drawn in place by the BoardRenderer.
+ *
+ * Falling is simulated in fixed steps, STEPS_PER_SECOND of them per second of real time however often frames are
+ * drawn, so drops look the same on a fast computer and a slow one, and a late frame catches up instead of slowing
+ * the drop down. Positions are kept in board heights (0 at the top, 1 at the bottom), so a window resized during
+ * a drop carries on with it. Every frame, only the strip of its column that a checker moved through is redrawn.
+ *
+ * Nothing is allocated once the animator is created, and it is only used from the event dispatch thread.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class DropAnimator {
+    // frames drawn per second while checkers are falling
+    public static final int FRAMES_PER_SECOND = 60;
+
+    // steps of the simulation per second, and the time one step covers in nanoseconds and seconds
+    public static final int STEPS_PER_SECOND = 120;
+    private static final long STEP = 1_000_000_000L / STEPS_PER_SECOND;
+    private static final double DT = 1.0 / STEPS_PER_SECOND;
+
+    // the longest pause (a stalled frame, a window being dragged) caught up on; after that the drop just carries on
+    private static final long MAX_LAG = 250_000_000L;
+
+    // how fast checkers fall, in board heights per second per second (the whole board in about 0.4 seconds)
+    private static final double GRAVITY = 12;
+
+    // the part of its speed a checker keeps when it bounces
+    private static final double BOUNCE = 0.3;
+
+    // a checker too slow to bounce more than 1/500 of the board comes to rest
+    private static final double REST_SPEED = Math.sqrt(2 * GRAVITY * 0.002);
+
+    // size of the game board
+    private final int numRows;
+    private final int numColumns;
+
+    // the checkers falling: their cell, their player, their position and speed now and one step ago (in board
+    // heights), whether they have come to rest, and where their center was last drawn (in device pixels)
+    private final int[] columns;
+    private final int[] rows;
+    private final int[] players;
+    private final double[] y;
+    private final double[] lastY;
+    private final double[] speed;
+    private final boolean[] resting;
+    private final int[] drawnY;
+    private int count;
+
+    // the number of checkers that have landed in every column
+    private final int[] landed;
+
+    // the time the simulation has reached, and the time since then not yet simulated (less than a step)
+    private long time;
+    private long lag;
+
+    // the areas of the window redrawn by the last frame: x, y, width and height of each
+    private final int[] areas;
+
+    /**
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     */
+    public DropAnimator(int numRows, int numColumns) {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+
+        // at most every cell of the board at once
+        int cells = numRows * numColumns;
+        columns = new int[cells];
+        rows = new int[cells];
+        players = new int[cells];
+        y = new double[cells];
+        lastY = new double[cells];
+        speed = new double[cells];
+        resting = new boolean[cells];
+        drawnY = new int[cells];
+        landed = new int[numColumns];
+        areas = new int[4 * cells];
+    }
+
+    /**
+     * Starts a checker falling into a cell. The checkers below it keep falling if they haven't landed yet.
+     * @param column    the column of the cell (starting from 0)
+     * @param row       the row of the cell (starting from 0 at the bottom)
+     * @param player    the player whose checker it is
+     * @param now       the time it is dropped at, from System.nanoTime
+     * @param renderer  the renderer the board is drawn with, where the checker appears
+     */
+    public void drop(int column, int row, int player, long now, BoardRenderer renderer) {
+        if (count == 0) {
+            time = now;
+            lag = 0;
+        }
+
+        columns[count] = column;
+        rows[count] = row;
+        players[count] = player;
+
+        // starting half a cell above the top of the board, out of sight
+        y[count] = -0.5 / numRows;
+        lastY[count] = y[count];
+        speed[count] = 0;
+        resting[count] = false;
+        drawnY[count] = (int) Math.round(y[count] * renderer.getHeight());
+
+        count++;
+    }
+
+    /**
+     * Returns true while any checker is falling or waiting for the ones below it to land.
+     */
+    public boolean isAnimating() {
+        return count > 0;
+    }
+
+    /**
+     * Returns the number of checkers that have landed in every column, to draw in place.
+     */
+    public int[] getLanded() {
+        return landed;
+    }
+
+    /**
+     * Returns the areas redrawn by the last frame, as x, y, width and height of each.
+     */
+    public int[] getAreas() {
+        return areas;
+    }
+
+    /**
+     * Lands every checker of a game at once, without animating it (for a new game or one that was loaded).
+     */
+    public void settle(GameState game) {
+        count = 0;
+
+        for (int c = 0; c < numColumns; c++) {
+            landed[c] = game.getHeight(c);
+        }
+    }
+
+    /**
+     * Moves the checkers on to the given time and works out the areas of the window that changed.
+     * @param now       the time of the frame, from System.nanoTime
+     * @param renderer  the renderer the board is drawn with
+     * @param scale     device pixels per window pixel, to give the areas in window pixels
+     * @return the number of areas in getAreas that need redrawing
+     */
+    public int frame(long now, BoardRenderer renderer, double scale) {
+        // simulate as many whole steps as have passed; the rest carries over to the next frame
+        lag = Math.min(lag + now - time, MAX_LAG);
+        time = now;
+
+        while (lag >= STEP) {
+            step();
+            lag -= STEP;
+        }
+
+        // draw in between the last two steps, so that movement is smooth even when frames and steps don't line up
+        double alpha = (double) lag / STEP;
+        int ext = CheckerSprites.extent(renderer.getRadius());
+        int n = 0;
+
+        for (int i = 0; i < count; i++) {
+            // a checker at rest is drawn exactly where the renderer draws it once it has landed
+            int newY = resting[i] && lastY[i] == y[i] ? renderer.getCellY(rows[i])
+                    : (int) Math.round((lastY[i] + (y[i] - lastY[i]) * alpha) * renderer.getHeight());
+
+            if (newY != drawnY[i]) {
+                // the strip between where it was drawn and where it is drawn now, in window pixels
+                int top = Math.min(drawnY[i], newY) - ext;
+                int bottom = Math.max(drawnY[i], newY) + ext;
+
+                areas[4 * n] = (int) Math.floor((renderer.getCellX(columns[i]) - ext) / scale);
+                areas[4 * n + 1] = (int) Math.floor(top / scale);
+                areas[4 * n + 2] = (int) Math.ceil(2 * ext / scale) + 1;
+                areas[4 * n + 3] = (int) Math.ceil((bottom - top) / scale) + 1;
+                n++;
+
+                drawnY[i] = newY;
+            }
+        }
+
+        land(renderer);
+        return n;
+    }
+
+    /**
+     * Moves every falling checker on by one step.
+     */
+    private void step() {
+        for (int i = 0; i < count; i++) {
+            lastY[i] = y[i];
+
+            if (resting[i]) {
+                continue;
+            }
+
+            speed[i] += GRAVITY * DT;
+            y[i] += speed[i] * DT;
+
+            // the center of the cell, from the top
+            double target = 1 - (1 + 2 * rows[i]) / (2.0 * numRows);
+
+            // it hit the checker below: bounce back up, or stop if it is too slow to
+            if (y[i] >= target) {
+                y[i] = target;
+
+                if (speed[i] < REST_SPEED) {
+                    speed[i] = 0;
+                    resting[i] = true;
+                }
+                else {
+                    speed[i] = -speed[i] * BOUNCE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands every checker that has come to rest, and is drawn in its cell, over to the renderer, lowest first, so
+     * that each column's landed checkers are always the ones at the bottom.
+     */
+    private void land(BoardRenderer renderer) {
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (int i = 0; i < count; i++) {
+                if (resting[i] && rows[i] == landed[columns[i]] && drawnY[i] == renderer.getCellY(rows[i])) {
+                    landed[columns[i]]++;
+                    remove(i);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets a checker, moving the last one into its place.
+     */
+    private void remove(int i) {
+        count--;
+
+        columns[i] = columns[count];
+        rows[i] = rows[count];
+        players[i] = players[count];
+        y[i] = y[count];
+        lastY[i] = lastY[count];
+        speed[i] = speed[count];
+        resting[i] = resting[count];
+        drawnY[i] = drawnY[count];
+    }
+
+    /**
+     * Draws every checker that hasn't landed yet where it was last placed by frame.
+     * @param looks     the checker whose look each player's checkers are drawn with, indexed by player
+     */
+    public void draw(Graphics g, BoardRenderer renderer, Checker[] looks) {
+        for (int i = 0; i < count; i++) {
+            looks[players[i]].drawSpriteAt(g, renderer.getCellX(columns[i]), drawnY[i]);
+        }
+    }
+}
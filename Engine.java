@@ -0,0 +1,12 @@
+/**
+ * A computer player that picks a column for the player to move.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public interface Engine {
+    /**
+     * Finds the column to play for the player to move. The game itself is never changed.
+     * @return the column, or -1 if the game is over
+     */
+    int bestMove(GameState game);
+}
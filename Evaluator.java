@@ -0,0 +1,291 @@
+import java.util.Arrays;
+
+/**
+ * Heuristic evaluation of a position that is kept up to date as checkers are played and taken back, so that a
+ * search can score the positions at its depth limit without rescanning the board.
+ *
+ * The board is seen as every window of four cells in a row (in any direction). Each window keeps the number of
+ * checkers each player has in it, and only the windows through a cell change when a checker is dropped into it
+ * or taken out of it (at most 16 on any board), so a move costs the same on a 13x14 board as on a 6x7 one.
+ *
+ * A window holding checkers of only one player is worth points to that player, more the fuller it is. A window
+ * holding three checkers of one player and nothing else makes its empty cell a threat for that player. Threats
+ * are counted once per cell, split by the parity of their row: the first player profits from threats on odd rows
+ * (counting the bottom row as row 1) and the second player from threats on even rows, since those are the cells
+ * zugzwang hands each of them at the end of the game.
+ *
+ * The evaluator only knows about the checkers it has been told about. Either load a game into it, or play and
+ * undo every move on it right after playing or undoing it on the game.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class Evaluator {
+    // points for a window holding only one player's checkers, by how many it holds (three in a row is a threat,
+    // which is scored by cell instead; four in a row has already won)
+    private static final int[] WINDOW_POINTS = {0, 1, 4, 8, 0};
+
+    // points for every cell that would connect four, and extra points if its row has the player's parity
+    private static final int THREAT_POINTS = 16;
+    private static final int PARITY_POINTS = 16;
+
+    // the directions a window can go in (column step, row step): vertical, horizontal and both diagonals
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    // the size of the board, cells being numbered column * numRows + row
+    private final int numRows;
+    private final int numColumns;
+
+    // the four cells of every window
+    private final int[] windowCells;
+
+    // the windows through every cell: cell c is in windows cellWindows[cellStart[c]] to cellWindows[cellStart[c + 1] - 1]
+    private final int[] cellStart;
+    private final int[] cellWindows;
+
+    // the player whose checker is in every cell, plus one (0 for an empty cell)
+    private final byte[] owners;
+
+    // the number of checkers each player has in every window
+    private final byte[][] counts;
+
+    // the number of windows that make every cell a threat for each player
+    private final int[][] threatWindows;
+
+    // the window points, the number of threat cells, and the threat cells on odd rows (1, 3, 5... from the
+    // bottom) of each player
+    private final int[] points = new int[2];
+    private final int[] threats = new int[2];
+    private final int[] oddThreats = new int[2];
+
+    /**
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     */
+    public Evaluator(int numRows, int numColumns) {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+
+        int cells = numRows * numColumns;
+
+        // count the windows through every cell first, to lay out the windows of each cell next to each other
+        int windows = 0;
+        cellStart = new int[cells + 1];
+
+        for (int[] d : DIRECTIONS) {
+            for (int c = 0; c < numColumns; c++) {
+                for (int r = 0; r < numRows; r++) {
+                    if (fits(c, r, d)) {
+                        for (int k = 0; k < 4; k++) {
+                            cellStart[cell(c + k * d[0], r + k * d[1]) + 1]++;
+                        }
+                        windows++;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < cells; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+
+        windowCells = new int[4 * windows];
+        cellWindows = new int[cellStart[cells]];
+        int[] filled = new int[cells];
+        int w = 0;
+
+        for (int[] d : DIRECTIONS) {
+            for (int c = 0; c < numColumns; c++) {
+                for (int r = 0; r < numRows; r++) {
+                    if (fits(c, r, d)) {
+                        for (int k = 0; k < 4; k++) {
+                            int cell = cell(c + k * d[0], r + k * d[1]);
+                            windowCells[4 * w + k] = cell;
+                            cellWindows[cellStart[cell] + filled[cell]++] = w;
+                        }
+                        w++;
+                    }
+                }
+            }
+        }
+
+        owners = new byte[cells];
+        counts = new byte[2][windows];
+        threatWindows = new int[2][cells];
+    }
+
+    // functions that reference the threats on the board.
+    public int getThreats(int player) {
+        return threats[player];
+    }
+
+    /**
+     * Returns the number of threats of a player on odd rows, counting the bottom row as row 1.
+     */
+    public int getOddThreats(int player) {
+        return oddThreats[player];
+    }
+
+    /**
+     * Returns the number of threats of a player on even rows, counting the bottom row as row 1.
+     */
+    public int getEvenThreats(int player) {
+        return threats[player] - oddThreats[player];
+    }
+
+    /**
+     * Returns true if a checker of the player in the given empty cell would connect four.
+     */
+    public boolean isThreat(int player, int column, int row) {
+        return threatWindows[player][cell(column, row)] > 0;
+    }
+
+    /**
+     * Returns the heuristic score of the position for a player: positive if it looks better for them than for
+     * their opponent, negative if it looks worse.
+     */
+    public int evaluate(int player) {
+        return value(player) - value(player ^ 1);
+    }
+
+    /**
+     * Returns the points of one player alone.
+     */
+    private int value(int player) {
+        // player one gets the threats on odd rows, player two the ones on even rows
+        int goodThreats = player == GameState.PLAYER_ONE ? getOddThreats(player) : getEvenThreats(player);
+
+        return points[player] + THREAT_POINTS * threats[player] + PARITY_POINTS * goodThreats;
+    }
+
+    /**
+     * Empties the board and puts every checker of a game on it.
+     */
+    public void load(GameState game) {
+        clear();
+
+        for (int c = 0; c < numColumns; c++) {
+            for (int r = 0; r < game.getHeight(c); r++) {
+                play(c, r, game.getBoard().get(c, r));
+            }
+        }
+    }
+
+    /**
+     * Empties the board.
+     */
+    public void clear() {
+        Arrays.fill(owners, (byte) 0);
+        Arrays.fill(counts[0], (byte) 0);
+        Arrays.fill(counts[1], (byte) 0);
+        Arrays.fill(threatWindows[0], 0);
+        Arrays.fill(threatWindows[1], 0);
+
+        for (int p = 0; p < 2; p++) {
+            points[p] = 0;
+            threats[p] = 0;
+            oddThreats[p] = 0;
+        }
+    }
+
+    /**
+     * Adds a checker of the player to the given (empty) cell.
+     */
+    public void play(int column, int row, int player) {
+        update(cell(column, row), player, 1);
+    }
+
+    /**
+     * Takes the player's checker out of the given cell.
+     */
+    public void undo(int column, int row, int player) {
+        update(cell(column, row), player, -1);
+    }
+
+    /**
+     * Adds (change 1) or removes (change -1) a checker and rescores every window through its cell.
+     */
+    private void update(int cell, int player, int change) {
+        int start = cellStart[cell];
+        int end = cellStart[cell + 1];
+
+        // take out what the windows were worth before the move, while the cell still has its old owner
+        for (int i = start; i < end; i++) {
+            score(cellWindows[i], -1);
+        }
+
+        owners[cell] = (byte) (change > 0 ? player + 1 : 0);
+
+        for (int i = start; i < end; i++) {
+            int w = cellWindows[i];
+            counts[player][w] += change;
+            score(w, 1);
+        }
+    }
+
+    /**
+     * Adds (sign 1) or takes out (sign -1) the points and the threat of a window.
+     */
+    private void score(int w, int sign) {
+        for (int p = 0; p < 2; p++) {
+            int own = counts[p][w];
+
+            // windows shared by both players are worth nothing to either
+            if (own == 0 || counts[p ^ 1][w] != 0) {
+                continue;
+            }
+
+            points[p] += sign * WINDOW_POINTS[own];
+
+            if (own == 3) {
+                threat(p, emptyCell(w), sign);
+            }
+        }
+    }
+
+    /**
+     * Counts (sign 1) or uncounts (sign -1) one window making a cell a threat for a player.
+     */
+    private void threat(int player, int cell, int sign) {
+        int before = threatWindows[player][cell];
+        threatWindows[player][cell] = before + sign;
+
+        // the cell only counts once, however many windows it completes
+        if (before == 0 || before + sign == 0) {
+            threats[player] += sign;
+
+            if (cell % numRows % 2 == 0) {
+                oddThreats[player] += sign;
+            }
+        }
+    }
+
+    /**
+     * Returns the one empty cell of a window holding three checkers.
+     */
+    private int emptyCell(int w) {
+        for (int k = 4 * w; k < 4 * w + 3; k++) {
+            if (owners[windowCells[k]] == 0) {
+                return windowCells[k];
+            }
+        }
+
+        return windowCells[4 * w + 3];
+    }
+
+    /**
+     * Returns true if the window starting at (column, row) going in direction d lies inside the board.
+     */
+    private boolean fits(int column, int row, int[] d) {
+        int lastColumn = column + 3 * d[0];
+        int lastRow = row + 3 * d[1];
+
+        return lastColumn < numColumns && lastRow >= 0 && lastRow < numRows;
+    }
+
+    /**
+     * Returns the number of a cell.
+     */
+    private int cell(int column, int row) {
+        return column * numRows + row;
+    }
+}
@@ -0,0 +1,153 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Drawing surface for DrawingGUI that draws every frame into a back buffer in video memory and then shows it in
+ * one go (page flipping where the screen supports it, a single accelerated copy otherwise), so a frame is never
+ * seen half drawn and big windows don't pay for a copy through the CPU.
+ *
+ * Repaint requests work as on any component. A repaint of part of the canvas only redraws that part of the back
+ * buffer when the buffer keeps its contents between frames; otherwise, or after the buffer was lost (for example
+ * when the screen mode changed), the whole frame is redrawn. Without a buffer strategy (before the canvas is on
+ * screen) it draws straight onto the screen.
+ *
+ * Animations draw their frames with renderAreas instead, right away and with every area that changed kept
+ * separate, where queued repaints would wait their turn in the event queue and be merged into one big area.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class FlipCanvas extends Canvas {
+    private static final long serialVersionUID = 1L;
+
+    // the window whose draw method paints the frames
+    private final DrawingGUI gui;
+
+    // the back buffer and whether it keeps its contents after being shown (null until the canvas is on screen)
+    private BufferStrategy strategy;
+    private boolean preserved;
+
+    // the area being repainted, reused on every frame, and the same area as x, y, width and height for render
+    private final Rectangle area = new Rectangle();
+    private final int[] areas = new int[4];
+
+    public FlipCanvas(DrawingGUI gui) {
+        this.gui = gui;
+    }
+
+    /**
+     * Called for repaint requests: redraws the requested area without clearing it first.
+     */
+    @Override
+    public void update(Graphics g) {
+        if (g.getClipBounds(area) == null) {
+            render(g, null, 0);
+            return;
+        }
+
+        areas[0] = area.x;
+        areas[1] = area.y;
+        areas[2] = area.width;
+        areas[3] = area.height;
+        render(g, areas, 1);
+    }
+
+    /**
+     * Called when the window system needs the canvas drawn again (shown, uncovered, resized): redraws everything.
+     */
+    @Override
+    public void paint(Graphics g) {
+        render(g, null, 0);
+    }
+
+    /**
+     * Draws the given areas of the next frame right away and shows them all at once, for animations. Must be
+     * called on the event dispatch thread.
+     * @param areas     x, y, width and height of every area, one after the other
+     * @param count     the number of areas
+     */
+    public void renderAreas(int[] areas, int count) {
+        if (count > 0) {
+            render(null, areas, count);
+        }
+    }
+
+    /**
+     * Draws a frame into the back buffer and shows it, and records how long that took as one frame (however many
+     * areas it redraws).
+     * @param g         the screen graphics, used only when there is no back buffer (null to draw nothing then)
+     * @param areas     x, y, width and height of the areas to redraw, if the back buffer still holds the rest of
+     *                  the last frame (null to redraw everything)
+     * @param count     the number of areas
+     */
+    private void render(Graphics g, int[] areas, int count) {
+        long start = Metrics.now();
+
+        if (strategy == null && !createStrategy()) {
+            if (g != null) {
+                gui.draw(g);
+                Metrics.framePainted(start);
+            }
+            return;
+        }
+
+        boolean whole = areas == null || !preserved;
+
+        do {
+            do {
+                Graphics bg = strategy.getDrawGraphics();
+
+                if (whole) {
+                    gui.draw(bg);
+                }
+
+                // every area is drawn on its own copy of the graphics, clipped to the area
+                else {
+                    for (int i = 0; i < count; i++) {
+                        Graphics ag = bg.create();
+                        ag.clipRect(areas[4 * i], areas[4 * i + 1], areas[4 * i + 2], areas[4 * i + 3]);
+                        gui.draw(ag);
+                        ag.dispose();
+                    }
+                }
+
+                bg.dispose();
+
+                // if the buffer was lost while drawing, it is drawn again from scratch
+                whole = true;
+            } while (strategy.contentsRestored());
+
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        // make sure the frame reaches the screen now rather than whenever the window system flushes
+        Toolkit.getDefaultToolkit().sync();
+
+        Metrics.framePainted(start);
+    }
+
+    /**
+     * Sets up double buffering, asking for a buffer that keeps its contents between frames first.
+     * @return false if the canvas isn't on screen yet
+     */
+    private boolean createStrategy() {
+        if (!isDisplayable() || getWidth() <= 0 || getHeight() <= 0) {
+            return false;
+        }
+
+        try {
+            createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                    BufferCapabilities.FlipContents.COPIED));
+        }
+        catch (AWTException e) {
+            // let the toolkit pick the best strategy it has
+            createBufferStrategy(2);
+        }
+
+        strategy = getBufferStrategy();
+
+        BufferCapabilities caps = strategy.getCapabilities();
+        preserved = !caps.isPageFlipping() || caps.getFlipContents() == BufferCapabilities.FlipContents.COPIED;
+
+        return true;
+    }
+}
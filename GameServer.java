@@ -0,0 +1,666 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Hosts connect four games for remote players over TCP, so that games aren't tied to one window and one mouse.
+ *
+ * One thread serves every connection with a non-blocking NIO selector. Every game has its own GameState on the
+ * server, which holds the rules, so clients only send the columns they play. Commands and replies are ASCII
+ * lines ending in '\n':
+ *
+ *     CREATE [rows columns]    starts a game (6x7 by default), the creator is player 1
+ *                              -> OK CREATED id
+ *     JOIN id                  joins a game as player 2
+ *                              -> OK JOINED id, and the creator receives JOINED id
+ *     MOVE column              drops a checker (columns start from 0)
+ *                              -> OK MOVED column row, and the opponent receives MOVED column row
+ *     STATE                    -> STATE id rows columns toMove status moves (status is WAITING, PLAYING, WON, DRAW,
+ *                                 RESIGNED or LEFT, and moves is the columns played so far, separated by commas)
+ *     RESIGN                   gives up the game
+ *
+ * When a game ends, both players receive OVER WIN player, OVER DRAW, OVER RESIGN player or OVER LEFT player
+ * (when a player disconnects). Mistakes are answered with ERR and a message. A connection plays one game at a
+ * time, and may create or join another once it is over.
+ *
+ * Commands are parsed straight from the read buffers and replies are written straight into the write buffers,
+ * so playing a move allocates nothing. The GameState of a finished game goes back to a pool once both of its
+ * players have moved on, and is reused for a later game.
+ *
+ * To start a server, run: java GameServer [port]
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class GameServer {
+    // the port the server listens on by default
+    public static final int DEFAULT_PORT = 4004;
+
+    // the longest command accepted, in bytes
+    private static final int MAX_LINE = 256;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+
+    // games that can still be joined or played, by id
+    private final HashMap<Long, Match> matches;
+    private long nextId;
+
+    // boards of finished games, reused for new ones
+    private final GameStatePool pool;
+
+    // position of the next character to parse in the line being handled
+    private int cursor;
+
+    // counters for the status line printed every few seconds
+    private long moveCount;
+    private long gameCount;
+    private int clientCount;
+
+    /**
+     * @param port  the port to listen on
+     */
+    public GameServer(int port) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        matches = new HashMap<Long, Match>();
+        nextId = 1;
+        pool = new GameStatePool();
+    }
+
+    /**
+     * Serves clients until the thread is interrupted, printing a status line every 10 seconds.
+     */
+    public void run() throws IOException {
+        long lastReport = System.nanoTime();
+        long lastMoves = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            selector.select(1000);
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                try {
+                    if (key.isAcceptable()) {
+                        accept();
+                    }
+                    else {
+                        Client client = (Client) key.attachment();
+
+                        if (key.isReadable()) {
+                            read(client);
+                        }
+
+                        if (key.isValid() && key.isWritable()) {
+                            flush(client);
+                        }
+                    }
+                }
+                catch (IOException e) {
+                    // the connection broke, so it is treated like the client leaving
+                    if (key.attachment() != null) {
+                        disconnect((Client) key.attachment());
+                    }
+                }
+            }
+
+            long now = System.nanoTime();
+            if (now - lastReport >= 10000000000L) {
+                System.out.println(clientCount + " clients, " + matches.size() + " open games, " + gameCount + " games created, "
+                        + (long) ((moveCount - lastMoves) * 1e9 / (now - lastReport)) + " moves per second");
+                lastReport = now;
+                lastMoves = moveCount;
+            }
+        }
+    }
+
+    /**
+     * Accepts every waiting connection.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            Client client = new Client(channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            clientCount++;
+        }
+    }
+
+    /**
+     * Reads what a client has sent and handles every complete line.
+     */
+    private void read(Client client) throws IOException {
+        if (client.channel.read(client.in) < 0) {
+            disconnect(client);
+            return;
+        }
+
+        ByteBuffer in = client.in;
+        int start = 0;
+
+        for (int i = 0; i < in.position(); i++) {
+            if (in.get(i) == '\n') {
+                handle(client, start, i);
+                start = i + 1;
+
+                // the client may have been disconnected by its own command
+                if (!client.channel.isOpen()) {
+                    return;
+                }
+            }
+        }
+
+        // keep the unfinished line for the next read
+        in.limit(in.position()).position(start);
+        in.compact();
+
+        if (!in.hasRemaining()) {
+            send(client, "ERR line too long\n");
+            flush(client);
+            disconnect(client);
+            return;
+        }
+
+        flush(client);
+    }
+
+    /**
+     * Handles one command, found between start and end (exclusive) in the client's read buffer.
+     */
+    private void handle(Client client, int start, int end) throws IOException {
+        ByteBuffer in = client.in;
+
+        // ignore a carriage return before the newline
+        if (end > start && in.get(end - 1) == '\r') {
+            end--;
+        }
+
+        cursor = start;
+
+        if (word(in, end, "MOVE")) {
+            move(client, smallNumber(in, end));
+        }
+        else if (word(in, end, "CREATE")) {
+            // 6x7 when no size is given at all, otherwise both numbers must be there and make sense
+            if (skipSpaces(in, end) == end) {
+                create(client, 6, 7);
+            }
+            else {
+                int numRows = smallNumber(in, end);
+                int numColumns = smallNumber(in, end);
+                create(client, numRows, numColumns);
+            }
+        }
+        else if (word(in, end, "JOIN")) {
+            join(client, number(in, end));
+        }
+        else if (word(in, end, "STATE")) {
+            state(client);
+        }
+        else if (word(in, end, "RESIGN")) {
+            resign(client);
+        }
+        else if (end > start) {
+            send(client, "ERR unknown command\n");
+        }
+    }
+
+    /**
+     * Starts a new game with the client as player 1.
+     */
+    private void create(Client client, int numRows, int numColumns) {
+        if (client.match != null && !client.match.over) {
+            send(client, "ERR already in a game\n");
+            return;
+        }
+
+        if (numRows < 4 || numColumns < 4 || numRows > 13 || numColumns > 14) {
+            send(client, "ERR boards go from 4x4 to 13x14\n");
+            return;
+        }
+
+        leave(client);
+
+        Match match = new Match(nextId++, pool.acquire(numRows, numColumns));
+        match.players[0] = client;
+        matches.put(match.id, match);
+        gameCount++;
+
+        client.match = match;
+        match.clients++;
+        client.player = GameState.PLAYER_ONE;
+
+        send(client, "OK CREATED ");
+        send(client, match.id);
+        send(client, "\n");
+    }
+
+    /**
+     * Adds the client to a game as player 2.
+     */
+    private void join(Client client, long id) {
+        if (client.match != null && !client.match.over) {
+            send(client, "ERR already in a game\n");
+            return;
+        }
+
+        Match match = matches.get(id);
+        if (match == null || match.players[1] != null || match.players[0] == client) {
+            send(client, "ERR no game to join\n");
+            return;
+        }
+
+        leave(client);
+
+        match.players[1] = client;
+        client.match = match;
+        match.clients++;
+        client.player = GameState.PLAYER_TWO;
+
+        send(client, "OK JOINED ");
+        send(client, id);
+        send(client, "\n");
+
+        Client creator = match.players[0];
+        send(creator, "JOINED ");
+        send(creator, id);
+        send(creator, "\n");
+        flush(creator);
+    }
+
+    /**
+     * Plays a column for the client.
+     */
+    private void move(Client client, int column) {
+        Match match = client.match;
+
+        if (match == null || match.over || match.players[1] == null) {
+            send(client, "ERR no game in progress\n");
+            return;
+        }
+
+        GameState game = match.game;
+        if (game.getCurrentPlayer() != client.player) {
+            send(client, "ERR not your turn\n");
+            return;
+        }
+
+        long start = Metrics.now();
+        int row = game.play(column);
+        if (row < 0) {
+            send(client, "ERR illegal move\n");
+            return;
+        }
+        Metrics.winChecked(start, game.isWin());
+        Metrics.played(game);
+
+        moveCount++;
+        Client opponent = match.players[client.player ^ 1];
+
+        send(client, "OK MOVED ");
+        send(client, column);
+        send(client, " ");
+        send(client, row);
+        send(client, "\n");
+
+        send(opponent, "MOVED ");
+        send(opponent, column);
+        send(opponent, " ");
+        send(opponent, row);
+        send(opponent, "\n");
+
+        if (game.isWin()) {
+            end(match, "OVER WIN ", game.getWinner() + 1);
+        }
+        else if (game.isDraw()) {
+            end(match, "OVER DRAW", -1);
+        }
+
+        flush(opponent);
+        Metrics.moveHandled(start, column);
+    }
+
+    /**
+     * Sends the state of the client's game.
+     */
+    private void state(Client client) {
+        Match match = client.match;
+
+        if (match == null) {
+            send(client, "ERR no game\n");
+            return;
+        }
+
+        GameState game = match.game;
+
+        send(client, "STATE ");
+        send(client, match.id);
+        send(client, " ");
+        send(client, game.getNumRows());
+        send(client, " ");
+        send(client, game.getNumColumns());
+        send(client, " ");
+        send(client, game.getCurrentPlayer() + 1);
+        send(client, " ");
+        // a game that is over for any other reason ended with a player disconnecting
+        if (match.over) {
+            send(client, match.resigned ? "RESIGNED" : game.isWin() ? "WON" : game.isDraw() ? "DRAW" : "LEFT");
+        }
+        else {
+            send(client, match.players[1] == null ? "WAITING" : "PLAYING");
+        }
+        send(client, " ");
+
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            if (i > 0) {
+                send(client, ",");
+            }
+            send(client, game.getMove(i));
+        }
+
+        send(client, "\n");
+    }
+
+    /**
+     * Ends the client's game with the client resigning.
+     */
+    private void resign(Client client) {
+        Match match = client.match;
+
+        if (match == null || match.over) {
+            send(client, "ERR no game in progress\n");
+            return;
+        }
+
+        match.resigned = true;
+        end(match, "OVER RESIGN ", client.player + 1);
+
+        Client opponent = match.players[client.player ^ 1];
+        if (opponent != null) {
+            flush(opponent);
+        }
+    }
+
+    /**
+     * Marks a game as over and tells both players why.
+     * @param player    the player the message is about (1 or 2), or -1 for none
+     */
+    private void end(Match match, String message, int player) {
+        match.over = true;
+        matches.remove(match.id);
+
+        for (Client c : match.players) {
+            if (c != null) {
+                send(c, message);
+                if (player > 0) {
+                    send(c, player);
+                }
+                send(c, "\n");
+            }
+        }
+    }
+
+    /**
+     * Takes a client out of its finished game (if it is in one), and returns the game's board to the pool once
+     * neither player needs it anymore.
+     */
+    private void leave(Client client) {
+        Match match = client.match;
+
+        if (match != null) {
+            client.match = null;
+
+            if (--match.clients == 0) {
+                pool.release(match.game);
+            }
+        }
+    }
+
+    /**
+     * Closes a client's connection, ending its game if it was still going.
+     */
+    private void disconnect(Client client) {
+        if (!client.channel.isOpen()) {
+            return;
+        }
+
+        Match match = client.match;
+        if (match != null && !match.over) {
+            end(match, "OVER LEFT ", client.player + 1);
+
+            Client opponent = match.players[client.player ^ 1];
+            if (opponent != null) {
+                flush(opponent);
+            }
+        }
+        leave(client);
+
+        client.key.cancel();
+        try {
+            client.channel.close();
+        }
+        catch (IOException e) {
+            // already gone
+        }
+        clientCount--;
+    }
+
+    /**
+     * Writes as much of a client's waiting replies as the connection takes, and waits for room to write the rest.
+     */
+    private void flush(Client client) {
+        ByteBuffer out = client.out;
+        if (out.position() == 0 || !client.channel.isOpen()) {
+            return;
+        }
+
+        try {
+            out.flip();
+            client.channel.write(out);
+            out.compact();
+        }
+        catch (IOException e) {
+            out.clear();
+            disconnect(client);
+            return;
+        }
+
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (client.key.interestOps() != ops) {
+            client.key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Adds ASCII text to a client's replies.
+     */
+    private static void send(Client client, String text) {
+        ByteBuffer out = client.room(text.length());
+
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * Adds a number in decimal to a client's replies.
+     */
+    private static void send(Client client, long n) {
+        ByteBuffer out = client.room(20);
+
+        if (n < 0) {
+            out.put((byte) '-');
+            n = -n;
+        }
+
+        // find the highest power of ten in n, then write the digits from the top
+        long power = 1;
+        while (power <= n / 10) {
+            power *= 10;
+        }
+
+        for (; power > 0; power /= 10) {
+            out.put((byte) ('0' + n / power % 10));
+        }
+    }
+
+    /**
+     * Returns true and moves the cursor past the word if the line continues with the given word (ignoring case).
+     */
+    private boolean word(ByteBuffer in, int end, String word) {
+        int i = skipSpaces(in, end);
+
+        if (end - i < word.length()) {
+            return false;
+        }
+
+        for (int j = 0; j < word.length(); j++) {
+            if (Character.toUpperCase(in.get(i + j)) != word.charAt(j)) {
+                return false;
+            }
+        }
+
+        // the word must end there
+        if (i + word.length() < end && in.get(i + word.length()) != ' ') {
+            return false;
+        }
+
+        cursor = i + word.length();
+        return true;
+    }
+
+    /**
+     * Reads the next number on the line, as big as a game id can be.
+     * @return the number, or -1 if there isn't one or it doesn't fit in a long
+     */
+    private long number(ByteBuffer in, int end) {
+        int i = skipSpaces(in, end);
+        long n = 0;
+        int digits = 0;
+        boolean overflow = false;
+
+        // every digit is read, so a number too big is never cut short into a smaller one
+        while (i < end && in.get(i) >= '0' && in.get(i) <= '9') {
+            int digit = in.get(i) - '0';
+
+            if (n > (Long.MAX_VALUE - digit) / 10) {
+                overflow = true;
+            }
+            else {
+                n = 10 * n + digit;
+            }
+
+            i++;
+            digits++;
+        }
+
+        cursor = i;
+        return (digits == 0 || overflow) ? -1 : n;
+    }
+
+    /**
+     * Reads the next number on the line, for a column or a board size.
+     * @return the number, or -1 if there isn't one or it doesn't fit in an int
+     */
+    private int smallNumber(ByteBuffer in, int end) {
+        long n = number(in, end);
+        return n > Integer.MAX_VALUE ? -1 : (int) n;
+    }
+
+    /**
+     * Moves the cursor past any spaces.
+     */
+    private int skipSpaces(ByteBuffer in, int end) {
+        while (cursor < end && in.get(cursor) == ' ') {
+            cursor++;
+        }
+
+        return cursor;
+    }
+
+    /**
+     * One game on the server.
+     */
+    private static class Match {
+        private final long id;
+        private final GameState game;
+
+        // the clients playing as player 1 and player 2 (null until someone joins)
+        private final Client[] players = new Client[2];
+
+        // the number of those clients still looking at this game
+        private int clients;
+
+        private boolean over;
+        private boolean resigned;
+
+        private Match(long id, GameState game) {
+            this.id = id;
+            this.game = game;
+        }
+    }
+
+    /**
+     * One connection, with its buffers and the game it is in.
+     */
+    private static class Client {
+        private final SocketChannel channel;
+        private SelectionKey key;
+
+        // bytes read but not handled yet, and replies not written yet
+        private final ByteBuffer in = ByteBuffer.allocateDirect(MAX_LINE);
+        private ByteBuffer out = ByteBuffer.allocateDirect(1024);
+
+        // the game the client is in (null if none), and which player it is in that game
+        private Match match;
+        private int player;
+
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Returns the write buffer, grown if it doesn't have room for n more bytes.
+         */
+        private ByteBuffer room(int n) {
+            if (out.remaining() < n) {
+                ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(2 * out.capacity(), out.position() + n));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+
+            return out;
+        }
+    }
+
+    /**
+     * Starts a server from the command line.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        GameServer server = new GameServer(port);
+        System.out.println("Serving connect four on port " + port);
+
+        // write out snapshots of the move timings, if they are measured
+        Metrics.startReporting();
+        server.run();
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Headless connect four engine that holds the rules of the game without any graphics.
+ *
+ * Nothing in this class touches AWT or Swing, so it can be created and played out as many times as needed
+ * (for example in batch simulations) without opening a window. ConnectGUI uses one to run its games.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class GameState {
+    // the players, used to index the board and to report the winner
+    public static final int PLAYER_ONE = 0;
+    public static final int PLAYER_TWO = 1;
+    public static final int NONE = -1;
+
+    // the packed board holding every checker
+    private final BitBoard board;
+
+    // the columns played so far, in order, so that moves can be undone
+    private final int[] history;
+
+    // the player whose turn it is (PLAYER_ONE or PLAYER_TWO)
+    private int currentPlayer;
+
+    // the player who connected four, or NONE if no one has yet
+    private int winner;
+
+    // Zobrist hash of the checkers on the board, updated on every move (see Zobrist)
+    private long hash;
+
+    /**
+     * Creates an empty game on the standard 6x7 board.
+     */
+    public GameState() {
+        this(6, 7);
+    }
+
+    /**
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     */
+    public GameState(int numRows, int numColumns) {
+        board = new BitBoard(numRows, numColumns);
+        history = new int[numRows * numColumns];
+        currentPlayer = PLAYER_ONE;
+        winner = NONE;
+    }
+
+    /**
+     * Creates a copy of another game, so that it can be searched without changing the original.
+     */
+    public GameState(GameState other) {
+        board = new BitBoard(other.board);
+        history = other.history.clone();
+        currentPlayer = other.currentPlayer;
+        winner = other.winner;
+        hash = other.hash;
+    }
+
+    // functions that reference the state of the game.
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    public int getNumRows() {
+        return board.getNumRows();
+    }
+
+    public int getNumColumns() {
+        return board.getNumColumns();
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getMoveCount() {
+        return board.getCount();
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the number of checkers in a column, which is also the row the next checker dropped there lands in.
+     * The heights are kept up to date on every play and undo, so this never scans the board.
+     */
+    public int getHeight(int column) {
+        return board.getHeight(column);
+    }
+
+    /**
+     * Returns the column played on the given turn (starting from 0).
+     */
+    public int getMove(int turn) {
+        return history[turn];
+    }
+
+    public boolean isWin() {
+        return winner != NONE;
+    }
+
+    public boolean isDraw() {
+        return winner == NONE && board.isFull();
+    }
+
+    public boolean isOver() {
+        return winner != NONE || board.isFull();
+    }
+
+    /**
+     * Returns true if the current player may drop a checker in the given column.
+     */
+    public boolean canPlay(int column) {
+        return winner == NONE && column >= 0 && column < board.getNumColumns() && board.canPlay(column);
+    }
+
+    /**
+     * Returns true if the current player would connect four by dropping a checker into the given column.
+     */
+    public boolean isWinningMove(int column) {
+        return canPlay(column) && board.isWinningMove(currentPlayer, column);
+    }
+
+    /**
+     * Returns the Zobrist hash of the current position, which is the same for the same checkers however they got
+     * there, on any board size and in any run of the program.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns a key that identifies the current position, see BitBoard.key.
+     */
+    public long key() {
+        return board.key();
+    }
+
+    /**
+     * Writes every column that can currently be played into moves.
+     * @param moves     array with room for at least getNumColumns() entries
+     * @return the number of legal moves written
+     */
+    public int legalMoves(int[] moves) {
+        int n = 0;
+
+        // no moves are legal once someone has won
+        if (winner != NONE) {
+            return 0;
+        }
+
+        for (int c = 0; c < board.getNumColumns(); c++) {
+            if (board.canPlay(c)) {
+                moves[n++] = c;
+            }
+        }
+
+        return n;
+    }
+
+    /**
+     * Drops a checker for the current player into a column, checks for a win, and passes the turn.
+     * @return the row the checker landed in, or -1 if the move was not legal
+     */
+    public int play(int column) {
+        if (!canPlay(column)) {
+            return -1;
+        }
+
+        history[board.getCount()] = column;
+        int row = board.play(currentPlayer, column);
+        hash ^= Zobrist.key(currentPlayer, column, row);
+
+        // only the player who just moved can have won
+        if (board.isWin(currentPlayer)) {
+            winner = currentPlayer;
+        }
+
+        currentPlayer ^= 1;
+
+        return row;
+    }
+
+    /**
+     * Takes back the last move.
+     * @return the column of the move that was taken back, or -1 if there are no moves to take back
+     */
+    public int undo() {
+        if (board.getCount() == 0) {
+            return -1;
+        }
+
+        int column = history[board.getCount() - 1];
+        board.undo(column);
+
+        // a game can only have been won on its last move, so taking any move back clears the winner
+        winner = NONE;
+        currentPlayer ^= 1;
+
+        // the checker taken back was the player's who is now to move again
+        hash ^= Zobrist.key(currentPlayer, column, board.getHeight(column));
+
+        return column;
+    }
+
+    /**
+     * Resets the game to an empty board with player one to move.
+     */
+    public void reset() {
+        board.clear();
+        currentPlayer = PLAYER_ONE;
+        winner = NONE;
+        hash = 0;
+    }
+}
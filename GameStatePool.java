@@ -0,0 +1,80 @@
+/**
+ * Pool of GameStates that are reset and handed out again instead of being made from scratch, for headless code
+ * that plays many games one after another (servers, replays, simulations).
+ *
+ * Games of every board size share one pool: acquire looks for a free game of the right size from the most
+ * recently released one down, which is immediate when all the games are the same size. The pool can be shared
+ * between threads.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class GameStatePool {
+    // default number of free games kept
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // the free games, in the first size slots
+    private final GameState[] free;
+    private int size;
+
+    // counters for reporting how well the pool works
+    private long created;
+    private long reused;
+
+    /**
+     * Creates a pool keeping at most the default number of free games.
+     */
+    public GameStatePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity  number of free games kept, games released past that are left to the garbage collector
+     */
+    public GameStatePool(int capacity) {
+        free = new GameState[capacity];
+    }
+
+    // functions that reference how well the pool works.
+    public synchronized int getFree() {
+        return size;
+    }
+
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    public synchronized long getReused() {
+        return reused;
+    }
+
+    /**
+     * Returns an empty game of the given size, reusing a free one if there is one.
+     */
+    public synchronized GameState acquire(int numRows, int numColumns) {
+        for (int i = size - 1; i >= 0; i--) {
+            GameState game = free[i];
+
+            if (game.getNumRows() == numRows && game.getNumColumns() == numColumns) {
+                // fill the gap with the last free game
+                free[i] = free[--size];
+                free[size] = null;
+
+                game.reset();
+                reused++;
+                return game;
+            }
+        }
+
+        created++;
+        return new GameState(numRows, numColumns);
+    }
+
+    /**
+     * Gives a game back to the pool. It must not be used again by the caller.
+     */
+    public synchronized void release(GameState game) {
+        if (size < free.length) {
+            free[size++] = game;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Computer player that only looks one move ahead: it wins on the spot when it can, otherwise blocks a win of
+ * the opponent, otherwise plays a random move that doesn't let the opponent win right after.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class GreedyPlayer implements Engine {
+    // picks among the moves that are left
+    private final RandomPlayer random;
+
+    // moves that don't hand the opponent a win
+    private int[] safe;
+
+    /**
+     * @param seed  starting point of the random moves (any value but 0)
+     */
+    public GreedyPlayer(long seed) {
+        this.random = new RandomPlayer(seed);
+        this.safe = new int[0];
+    }
+
+    /**
+     * Finds a move for the player to move. The game is changed while the moves are tried, but is back to the same
+     * position when this returns.
+     */
+    @Override
+    public int bestMove(GameState game) {
+        if (game.isOver()) {
+            return -1;
+        }
+
+        int numColumns = game.getNumColumns();
+        int opponent = game.getCurrentPlayer() ^ 1;
+
+        // win on the spot
+        for (int c = 0; c < numColumns; c++) {
+            if (game.isWinningMove(c)) {
+                return c;
+            }
+        }
+
+        // block the opponent from winning on the spot
+        for (int c = 0; c < numColumns; c++) {
+            if (game.canPlay(c) && game.getBoard().isWinningMove(opponent, c)) {
+                return c;
+            }
+        }
+
+        if (safe.length < numColumns) {
+            safe = new int[numColumns];
+        }
+
+        // don't play right under a cell where the opponent would win
+        int n = 0;
+        for (int c = 0; c < numColumns; c++) {
+            if (game.canPlay(c)) {
+                game.play(c);
+                boolean losing = game.isWinningMove(c);
+                game.undo();
+
+                if (!losing) {
+                    safe[n++] = c;
+                }
+            }
+        }
+
+        // every move loses, so any one will do
+        if (n == 0) {
+            return random.bestMove(game);
+        }
+
+        return safe[random.nextInt(n)];
+    }
+}
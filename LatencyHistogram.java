@@ -0,0 +1,170 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size histogram of timings (in nanoseconds) that any number of threads can record into at once, so that
+ * timings can be taken all day long without using more memory. It reports percentiles for the tournament, the
+ * load generator and the metrics.
+ *
+ * Buckets are log-linear, like an HDR histogram: every power of two is split into 32 equal buckets, so a
+ * reported timing is never more than about 3% above the real one, and timings under 64 ns are exact. Recording
+ * is a few bit operations and one atomic increment, and the histogram never allocates after it is created.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class LatencyHistogram {
+    // every power of two is split into 2^SUB_BITS buckets
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // enough buckets for any positive long
+    private static final int BUCKETS = (64 - SUB_BITS + 1) << SUB_BITS;
+
+    // the number of timings in every bucket
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    // the number of timings, their total and the largest one (counted per thread, then added up)
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one timing. Negative timings count as 0.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the bucket a timing falls in.
+     */
+    private static int bucket(long value) {
+        int e = 63 - Long.numberOfLeadingZeros(value);
+
+        // small timings get a bucket each
+        if (e < SUB_BITS) {
+            return (int) value;
+        }
+
+        // otherwise the top SUB_BITS + 1 bits pick the bucket within the timing's power of two
+        return ((e - SUB_BITS + 1) << SUB_BITS) + (int) ((value >>> (e - SUB_BITS)) - SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the largest timing that falls in a bucket.
+     */
+    private static long highest(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int k = bucket >>> SUB_BITS;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << (k - 1);
+        return lowest + (1L << (k - 1)) - 1;
+    }
+
+    /**
+     * Records every timing of another histogram.
+     */
+    public void addAll(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+
+        count.add(other.count.sum());
+        total.add(other.total.sum());
+        max.accumulate(other.max.get());
+    }
+
+    // functions that reference what has been recorded.
+    public long size() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Returns the timing below which the given percentage of timings fall (100 gives the largest), rounded up to
+     * the top of its bucket.
+     */
+    public long percentile(double percent) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // never report more than the largest timing actually recorded
+                return Math.min(highest(i), max());
+            }
+        }
+
+        return max();
+    }
+
+    /**
+     * Returns the p50, p90, p99, p99.9, max and mean timings in microseconds, formatted in columns after a label
+     * (see header).
+     */
+    public String summary(String label) {
+        return String.format("%-16s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f", label,
+                percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3,
+                percentile(99.9) / 1e3, max() / 1e3, mean() / 1e3);
+    }
+
+    /**
+     * Returns the column headings that go above summary.
+     */
+    public static String header(String label) {
+        return String.format("%-16s %10s %10s %10s %10s %10s %10s", label, "p50", "p90", "p99", "p99.9", "max", "mean");
+    }
+
+    /**
+     * Returns the same numbers as summary as a JSON object, in microseconds.
+     */
+    public String toJson() {
+        // always with a decimal point, whatever the locale
+        return String.format(Locale.ROOT, "{\"count\": %d, \"p50\": %.1f, \"p90\": %.1f, \"p99\": %.1f, \"p99.9\": %.1f, \"max\": %.1f, \"mean\": %.1f}",
+                size(), percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3,
+                percentile(99.9) / 1e3, max() / 1e3, mean() / 1e3);
+    }
+
+    /**
+     * Forgets every timing. Timings recorded by other threads at the same time may be half forgotten.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,227 @@
+import java.awt.Color;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Settings for starting a game without any prompts, read from command-line flags and a config file, so that the
+ * game can be launched by a script, a kiosk or a batch job with nobody at the terminal.
+ *
+ * The same settings can be given as flags or as keys of a properties file passed with -config (flags win):
+ *     -mode M          mode          SPACE (default) or CUSTOM
+ *     -rows R          rows          number of rows, 4 to 13 (Custom Mode only, default 6)
+ *     -columns C       columns       number of columns, 4 to 14 (Custom Mode only, default 7)
+ *     -p1 COLOR        p1            color of Player 1 (Custom Mode only, default RED)
+ *     -p2 COLOR        p2            color of Player 2 (Custom Mode only, default YELLOW)
+ *     -board COLOR     board         color of the board (Custom Mode only, default BLACK)
+ *     -computer P      computer      NONE (default) for two players, ONE or TWO for the player the computer plays
+ *     -journal FILE    journal       file every move is recorded to (default games.journal), or NONE to record nothing
+ *     -exit                          quit as soon as the window is up, to time launches and train CDS archives
+ * Colors are the names of the java.awt.Color constants (RED, MAGENTA, BLUE...) or hex values like #FF8800.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class LaunchOptions {
+    // the usage message printed when the options are wrong
+    public static final String USAGE = "Usage: java ConnectDriver [-config FILE] [-mode SPACE|CUSTOM] [-rows R] [-columns C]\n"
+            + "                           [-p1 COLOR] [-p2 COLOR] [-board COLOR] [-computer NONE|ONE|TWO]\n"
+            + "                           [-journal FILE|NONE] [-exit]";
+
+    // the settings read so far, keyed like the config file
+    private final Properties settings = new Properties();
+
+    // true to quit as soon as the window is up
+    private boolean exit;
+
+    /**
+     * Reads the settings from command-line flags, and from the config file if one is named.
+     * @throws IllegalArgumentException if a flag is unknown or has no value
+     * @throws IOException if the config file can't be read
+     */
+    public LaunchOptions(String[] args) throws IOException {
+        Properties flags = new Properties();
+        String config = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String flag = args[i];
+
+            if (flag.equals("-exit")) {
+                exit = true;
+                continue;
+            }
+
+            if (!flag.startsWith("-") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected a flag followed by a value, found `" + flag + "'");
+            }
+
+            String value = args[++i];
+
+            switch (flag) {
+                case "-config":
+                    config = value;
+                    break;
+                case "-mode":
+                case "-rows":
+                case "-columns":
+                case "-p1":
+                case "-p2":
+                case "-board":
+                case "-computer":
+                case "-journal":
+                    flags.setProperty(flag.substring(1), value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option `" + flag + "'");
+            }
+        }
+
+        // the config file first, so that flags override it
+        if (config != null) {
+            try (Reader in = new FileReader(config)) {
+                settings.load(in);
+            }
+        }
+
+        settings.putAll(flags);
+    }
+
+    // functions that reference the settings, checked as they are read.
+    public boolean isSpaceMode() {
+        String mode = get("mode", "SPACE");
+
+        if (!mode.equals("SPACE") && !mode.equals("CUSTOM")) {
+            throw new IllegalArgumentException("The mode must be SPACE or CUSTOM, not `" + mode + "'");
+        }
+
+        return mode.equals("SPACE");
+    }
+
+    public int getNumRows() {
+        return getInt("rows", 6, 4, 13);
+    }
+
+    public int getNumColumns() {
+        return getInt("columns", 7, 4, 14);
+    }
+
+    public Color getP1Color() {
+        return getColor("p1", Color.RED);
+    }
+
+    public Color getP2Color() {
+        return getColor("p2", Color.YELLOW);
+    }
+
+    public Color getBoardColor() {
+        return getColor("board", Color.BLACK);
+    }
+
+    /**
+     * Returns the player the computer plays for, or GameState.NONE if both players are human.
+     */
+    public int getComputerPlayer() {
+        String computer = get("computer", "NONE");
+
+        switch (computer) {
+            case "NONE":
+                return GameState.NONE;
+            case "ONE":
+                return GameState.PLAYER_ONE;
+            case "TWO":
+                return GameState.PLAYER_TWO;
+            default:
+                throw new IllegalArgumentException("The computer must be NONE, ONE or TWO, not `" + computer + "'");
+        }
+    }
+
+    /**
+     * Returns the file every move is recorded to, or null if moves aren't recorded.
+     */
+    public String getJournalFile() {
+        // file names keep their case, unlike the other settings
+        String file = settings.getProperty("journal", MoveJournal.DEFAULT_FILE).trim();
+
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("The journal must be a file name or NONE");
+        }
+
+        return file.equalsIgnoreCase("NONE") ? null : file;
+    }
+
+    public boolean isExit() {
+        return exit;
+    }
+
+    /**
+     * Opens the game window with these settings.
+     * @throws IllegalArgumentException if a setting is wrong
+     */
+    public ConnectGUI launch() {
+        // check every setting before opening anything
+        boolean spaceMode = isSpaceMode();
+        int computerPlayer = getComputerPlayer();
+        ConnectGUI.setJournalFile(getJournalFile());
+
+        if (spaceMode) {
+            return new ConnectGUI(computerPlayer);
+        }
+
+        return new ConnectGUI(getNumRows(), getNumColumns(), getP1Color(), getP2Color(), getBoardColor(), computerPlayer);
+    }
+
+    /**
+     * Returns a setting in upper case, or the default if it isn't set.
+     */
+    private String get(String key, String defaultValue) {
+        return settings.getProperty(key, defaultValue).trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a whole number setting, checking it is within the given bounds.
+     */
+    private int getInt(String key, int defaultValue, int min, int max) {
+        String value = get(key, Integer.toString(defaultValue));
+
+        try {
+            int n = Integer.parseInt(value);
+            if (n >= min && n <= max) {
+                return n;
+            }
+        }
+        catch (NumberFormatException e) {
+            // reported below
+        }
+
+        throw new IllegalArgumentException("The " + key + " must be a number between " + min + " and " + max + ", not `" + value + "'");
+    }
+
+    /**
+     * Returns a color setting, given as the name of a Color constant or as a hex value.
+     */
+    private Color getColor(String key, Color defaultValue) {
+        if (!settings.containsKey(key)) {
+            return defaultValue;
+        }
+
+        String value = get(key, "");
+
+        try {
+            if (value.startsWith("#")) {
+                return Color.decode(value);
+            }
+
+            Field field = Color.class.getField(value);
+            if (field.getType() == Color.class) {
+                return (Color) field.get(null);
+            }
+        }
+        catch (NumberFormatException | ReflectiveOperationException e) {
+            // reported below
+        }
+
+        throw new IllegalArgumentException("Unknown color `" + value + "' for " + key + " -- use a name like RED or a hex value like #FF8800");
+    }
+}
@@ -0,0 +1,309 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Load generator for GameServer: opens two connections per game, plays random games over and over for a
+ * fixed time, and reports moves per second and how long the server takes to answer each move.
+ *
+ * Every game is played by a pair of connections, one creating the game and one joining it, which take turns
+ * playing random legal moves (tracked on a GameState of their own). When a game ends, the creator starts a new
+ * one. All connections are served by one thread with a selector, like the server.
+ *
+ * To run it, start a GameServer, then run: java LoadGenerator [-host H] [-port P] [-games N] [-seconds S]
+ *                                                               [-rows R] [-columns C]
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class LoadGenerator {
+    // the usage message printed when the options are wrong
+    public static final String USAGE = "Usage: java LoadGenerator [-host H] [-port P] [-games N] [-seconds S] [-rows R] [-columns C]";
+
+    private final Selector selector;
+
+    // the board every game is played on
+    private final int numRows;
+    private final int numColumns;
+
+    // no new games are started after this time
+    private long deadline;
+
+    // results
+    private long moveCount;
+    private long gameCount;
+    private long errorCount;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    // games still being played
+    private int active;
+
+    /**
+     * Connects every pair of players.
+     * @param games     number of games played at once (two connections each)
+     */
+    public LoadGenerator(String host, int port, int games, int numRows, int numColumns) throws IOException {
+        this.selector = Selector.open();
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+
+        for (int i = 0; i < games; i++) {
+            Pair pair = new Pair(0x9E3779B97F4A7C15L * (i + 1));
+            pair.players[0] = connect(address, pair, GameState.PLAYER_ONE);
+            pair.players[1] = connect(address, pair, GameState.PLAYER_TWO);
+        }
+    }
+
+    /**
+     * Opens one connection, then switches it to non-blocking.
+     */
+    private Player connect(InetSocketAddress address, Pair pair, int player) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        channel.configureBlocking(false);
+
+        Player p = new Player(channel, pair, player);
+        channel.register(selector, SelectionKey.OP_READ, p);
+        return p;
+    }
+
+    /**
+     * Plays games for the given time, then waits for the games in progress to end.
+     */
+    public void run(int seconds) throws IOException {
+        long start = System.nanoTime();
+        deadline = start + seconds * 1000000000L;
+
+        // every creator starts a game
+        for (SelectionKey key : selector.keys()) {
+            Player player = (Player) key.attachment();
+            if (player.player == GameState.PLAYER_ONE) {
+                player.pair.start();
+                active++;
+            }
+        }
+
+        while (active > 0) {
+            selector.select(1000);
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+
+                Player player = (Player) key.attachment();
+                if (player.channel.read(player.in) < 0) {
+                    throw new IOException("The server closed a connection");
+                }
+
+                player.readLines();
+            }
+
+            // stop waiting for games that have stalled well past the deadline
+            if (System.nanoTime() - deadline > 30000000000L) {
+                System.err.println(active + " games never finished");
+                break;
+            }
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(gameCount + " games and " + moveCount + " moves in " + String.format("%.1f", elapsed) + " s ("
+                + (selector.keys().size() / 2) + " games at once, " + errorCount + " errors)");
+        System.out.println(String.format("Moves per second:  %.0f", moveCount / elapsed));
+        System.out.println(String.format("Games per second:  %.0f", gameCount / elapsed));
+        System.out.println();
+        System.out.println(LatencyHistogram.header("Move time (us)"));
+        System.out.println(latencies.summary("server reply"));
+
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+    }
+
+    /**
+     * The two players of one game, and the game as they see it.
+     */
+    private class Pair {
+        private final Player[] players = new Player[2];
+        private final GameState game;
+        private final RandomPlayer random;
+
+        private Pair(long seed) {
+            this.game = new GameState(numRows, numColumns);
+            this.random = new RandomPlayer(seed);
+        }
+
+        /**
+         * Creates a new game on the server, or finishes if the time is up.
+         */
+        private void start() throws IOException {
+            if (System.nanoTime() > deadline) {
+                active--;
+                return;
+            }
+
+            game.reset();
+            players[0].send("CREATE " + numRows + " " + numColumns + "\n");
+        }
+
+        /**
+         * Plays a random move for the player whose turn it is.
+         */
+        private void move() throws IOException {
+            Player mover = players[game.getCurrentPlayer()];
+            int column = random.bestMove(game);
+
+            // play it here right away, so the opponent's view is up to date whatever order the replies arrive in
+            game.play(column);
+
+            mover.sent = System.nanoTime();
+            mover.send("MOVE " + column + "\n");
+        }
+    }
+
+    /**
+     * One connection.
+     */
+    private class Player {
+        private final SocketChannel channel;
+        private final Pair pair;
+        private final int player;
+
+        // bytes read but not handled yet
+        private final ByteBuffer in = ByteBuffer.allocate(4096);
+
+        // when the last move was sent
+        private long sent;
+
+        private Player(SocketChannel channel, Pair pair, int player) {
+            this.channel = channel;
+            this.pair = pair;
+            this.player = player;
+        }
+
+        private void send(String line) throws IOException {
+            ByteBuffer out = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+
+            // the replies are tiny, so the socket buffer almost never fills up
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+
+        /**
+         * Handles every complete line read so far.
+         */
+        private void readLines() throws IOException {
+            int start = 0;
+
+            for (int i = 0; i < in.position(); i++) {
+                if (in.get(i) == '\n') {
+                    handle(new String(in.array(), start, i - start, StandardCharsets.US_ASCII));
+                    start = i + 1;
+                }
+            }
+
+            in.limit(in.position()).position(start);
+            in.compact();
+        }
+
+        private void handle(String line) throws IOException {
+            String[] words = line.split(" ");
+
+            switch (words[0]) {
+                case "OK":
+                    if (words[1].equals("CREATED")) {
+                        pair.players[1].send("JOIN " + words[2] + "\n");
+                    }
+                    else if (words[1].equals("MOVED")) {
+                        latencies.record(System.nanoTime() - sent);
+                        moveCount++;
+                    }
+                    break;
+
+                case "JOINED":
+                    // player 1 moves first
+                    pair.move();
+                    break;
+
+                case "MOVED":
+                    // the game may already have been reset for the next one by the creator
+                    if (!pair.game.isOver() && pair.game.getCurrentPlayer() == player) {
+                        pair.move();
+                    }
+                    break;
+
+                case "OVER":
+                    // the creator starts the next game
+                    if (player == GameState.PLAYER_ONE) {
+                        gameCount++;
+                        pair.start();
+                    }
+                    break;
+
+                case "ERR":
+                    System.err.println("Server error: " + line);
+                    errorCount++;
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Runs the load generator from the command line.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = "localhost";
+        int port = GameServer.DEFAULT_PORT;
+        int games = 1000;
+        int seconds = 10;
+        int numRows = 6;
+        int numColumns = 7;
+
+        for (int i = 0; i < args.length; i += 2) {
+            // every option takes a value, so a last one without it is an error too
+            if (i + 1 >= args.length) {
+                System.err.println("Missing a value for `" + args[i] + "'");
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+
+            switch (args[i]) {
+                case "-host":
+                    host = args[i + 1];
+                    break;
+                case "-port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-games":
+                    games = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-seconds":
+                    seconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-rows":
+                    numRows = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-columns":
+                    numColumns = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option `" + args[i] + "'");
+                    System.err.println(USAGE);
+                    System.exit(1);
+            }
+        }
+
+        new LoadGenerator(host, port, games, numRows, numColumns).run(seconds);
+    }
+}
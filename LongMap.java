@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to objects, so looking a key up never boxes it.
+ *
+ * Keys live in one long array and values in a parallel array, where a null value marks an empty slot (so null
+ * can't be stored). Collisions go to the next slot, the table doubles when it gets half full, and removing a key
+ * shifts the entries after it back instead of leaving a tombstone, so lookups never slow down as keys come and
+ * go. Once the table has grown to the most keys held at once, nothing is allocated.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class LongMap<V> {
+    // the keys and their values, slot by slot (a null value means an empty slot)
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * @param capacity  number of keys held before the table first grows
+     */
+    public LongMap(int capacity) {
+        int slots = 2;
+        while (slots < 2 * capacity) {
+            slots *= 2;
+        }
+
+        keys = new long[slots];
+        values = new Object[slots];
+    }
+
+    // functions that reference how full the map is.
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot a key would take if it were alone in the table.
+     */
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (keys.length - 1);
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot where it would go.
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = home(key);
+
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+
+        return i;
+    }
+
+    /**
+     * Returns the value of a key, or null if the key isn't in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) values[slot(key)];
+    }
+
+    /**
+     * Sets the value of a key, adding the key if it is new.
+     * @param value     the value, not null
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongMap can't hold null values");
+        }
+
+        int i = slot(key);
+
+        if (values[i] == null) {
+            // grow first if the new key would fill more than half of the table
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                i = slot(key);
+            }
+
+            keys[i] = key;
+            size++;
+        }
+
+        values[i] = value;
+    }
+
+    /**
+     * Doubles the table, putting every key back in its new slot.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new Object[2 * oldValues.length];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes a key.
+     * @return its value, or null if the key wasn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        V value = (V) values[i];
+
+        if (value == null) {
+            return null;
+        }
+
+        values[i] = null;
+        size--;
+
+        // move back into the gap every following entry whose search would now stop at the gap before reaching it
+        int gap = i;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = home(keys[j]);
+
+            // the entry is fine where it is if its home lies cyclically in (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                values[j] = null;
+                gap = j;
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes every key, keeping the memory already allocated.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
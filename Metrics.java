@@ -0,0 +1,263 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Timings and counters of the hot paths (handling a move, checking for a win, painting a frame), kept in
+ * LatencyHistograms, sent as JFR events, and written out as text or JSON snapshots.
+ *
+ * Everything is off unless the program is started with -Dconnect.metrics=true. The flag is a static final
+ * constant, so when it is off the JIT drops every call below as dead code and the instrumented paths run exactly
+ * as if they weren't instrumented. When it is on, a timing costs two System.nanoTime calls and a few atomic adds,
+ * and a JFR event is only filled in while a flight recording is running with it turned on.
+ *
+ * The instrumented code follows this pattern:
+ *     long start = Metrics.now();
+ *     ...
+ *     Metrics.moveHandled(start, column);
+ *
+ * Snapshots are written by startReporting, set up with more system properties:
+ *     -Dconnect.metrics.interval=S     seconds between snapshots (default 60, 0 for none)
+ *     -Dconnect.metrics.format=F       text (default) or json, one object per line
+ *     -Dconnect.metrics.file=PATH      file the snapshots are appended to (default: standard output)
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class Metrics {
+    // true if anything is measured at all
+    public static final boolean ENABLED = Boolean.getBoolean("connect.metrics");
+
+    // how long moves take to handle (a click played and answered in the window, or a MOVE on the server),
+    // to play and check for a win, and to paint a frame
+    public static final LatencyHistogram MOVES = new LatencyHistogram();
+    public static final LatencyHistogram WIN_CHECKS = new LatencyHistogram();
+    public static final LatencyHistogram FRAMES = new LatencyHistogram();
+
+    // the number of games started, moves played, and games won or drawn
+    private static final LongAdder games = new LongAdder();
+    private static final LongAdder moves = new LongAdder();
+    private static final LongAdder wins = new LongAdder();
+    private static final LongAdder draws = new LongAdder();
+
+    // writes the snapshots, once started
+    private static ScheduledExecutorService reporter;
+
+    /**
+     * JFR event for a move handled.
+     */
+    @Name("connectfour.Move")
+    @Label("Move")
+    @Category("Connect Four")
+    @StackTrace(false)
+    static class MoveEvent extends Event {
+        @Label("Column")
+        int column;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+    }
+
+    /**
+     * JFR event for a move played and checked for a win.
+     */
+    @Name("connectfour.WinCheck")
+    @Label("Win Check")
+    @Category("Connect Four")
+    @StackTrace(false)
+    static class WinCheckEvent extends Event {
+        @Label("Won")
+        boolean won;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+    }
+
+    /**
+     * JFR event for a frame painted.
+     */
+    @Name("connectfour.Frame")
+    @Label("Frame")
+    @Category("Connect Four")
+    @StackTrace(false)
+    static class FrameEvent extends Event {
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+    }
+
+    /**
+     * Returns the time a measured step starts at, or 0 without reading the clock when metrics are off.
+     */
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time taken to handle a move in a column, from the given start time.
+     */
+    public static void moveHandled(long start, int column) {
+        if (!ENABLED) {
+            return;
+        }
+
+        long time = System.nanoTime() - start;
+        MOVES.record(time);
+
+        MoveEvent event = new MoveEvent();
+        if (event.shouldCommit()) {
+            event.column = column;
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the time taken to play a move and check it for a win, from the given start time.
+     */
+    public static void winChecked(long start, boolean won) {
+        if (!ENABLED) {
+            return;
+        }
+
+        long time = System.nanoTime() - start;
+        WIN_CHECKS.record(time);
+
+        WinCheckEvent event = new WinCheckEvent();
+        if (event.shouldCommit()) {
+            event.won = won;
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the time taken to paint a frame, from the given start time.
+     */
+    public static void framePainted(long start) {
+        if (!ENABLED) {
+            return;
+        }
+
+        long time = System.nanoTime() - start;
+        FRAMES.record(time);
+
+        FrameEvent event = new FrameEvent();
+        if (event.shouldCommit()) {
+            event.time = time;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts a move just played in a game, and the game itself if it was its first move or its last.
+     */
+    public static void played(GameState game) {
+        if (!ENABLED) {
+            return;
+        }
+
+        moves.increment();
+
+        if (game.getMoveCount() == 1) {
+            games.increment();
+        }
+
+        if (game.isWin()) {
+            wins.increment();
+        }
+        else if (game.isDraw()) {
+            draws.increment();
+        }
+    }
+
+    // functions that reference the counters.
+    public static long getGames() {
+        return games.sum();
+    }
+
+    public static long getMoves() {
+        return moves.sum();
+    }
+
+    public static long getWins() {
+        return wins.sum();
+    }
+
+    public static long getDraws() {
+        return draws.sum();
+    }
+
+    /**
+     * Returns every counter and timing, in microseconds, as a few lines of text.
+     */
+    public static String snapshot() {
+        return "Metrics at " + Instant.now() + "\n"
+                + "games " + getGames() + "  moves " + getMoves() + "  wins " + getWins() + "  draws " + getDraws() + "\n"
+                + LatencyHistogram.header("Time (us)") + "\n"
+                + MOVES.summary("move") + "\n"
+                + WIN_CHECKS.summary("win check") + "\n"
+                + FRAMES.summary("frame") + "\n";
+    }
+
+    /**
+     * Returns every counter and timing, in microseconds, as one line of JSON.
+     */
+    public static String toJson() {
+        return "{\"time\": \"" + Instant.now() + "\", \"games\": " + getGames() + ", \"moves\": " + getMoves()
+                + ", \"wins\": " + getWins() + ", \"draws\": " + getDraws()
+                + ", \"move\": " + MOVES.toJson() + ", \"winCheck\": " + WIN_CHECKS.toJson() + ", \"frame\": " + FRAMES.toJson() + "}";
+    }
+
+    /**
+     * Starts writing snapshots every few seconds on a background thread, as set up by the system properties above.
+     * Does nothing if metrics are off or reporting has already started.
+     */
+    public static synchronized void startReporting() {
+        if (!ENABLED || reporter != null) {
+            return;
+        }
+
+        long interval = Long.getLong("connect.metrics.interval", 60);
+        boolean json = "json".equals(System.getProperty("connect.metrics.format"));
+        String file = System.getProperty("connect.metrics.file");
+
+        if (interval <= 0) {
+            return;
+        }
+
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        reporter.scheduleAtFixedRate(() -> {
+            String text = json ? toJson() : snapshot();
+
+            if (file == null) {
+                System.out.println(text);
+                return;
+            }
+
+            try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+                out.println(text);
+            }
+            catch (IOException e) {
+                System.err.println("Couldn't write the metrics to `" + file + "' -- " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+}
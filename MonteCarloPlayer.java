@@ -0,0 +1,380 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Computer player for boards too big to search exhaustively, using Monte Carlo tree search with UCT.
+ *
+ * Every worker thread grows its own search tree from the current position (root parallelization), and the
+ * visit counts of the root moves are added up across trees to pick the move. Trees are kept between moves:
+ * when the next search starts from a position further down the same game, each worker carries on from the
+ * matching subtree instead of starting over.
+ *
+ * Trees are stored in flat primitive arrays, and every playout is played and undone on one GameState per
+ * worker. The arrays start small and double as the tree fills them, up to the capacity (24 bytes a node), so a
+ * player only takes the memory its searches use, and searching allocates nothing once a tree has grown.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class MonteCarloPlayer implements Engine {
+    // default weight of exploring little-visited moves against playing well-scoring ones
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    // default time spent on each move, in milliseconds
+    public static final long DEFAULT_TIME = 1000;
+
+    // default number of nodes each worker's tree can grow to
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    // number of nodes each tree has room for before it first grows
+    private static final int INITIAL_NODES = 1 << 12;
+
+    // weight of the exploration term in UCT
+    private final double exploration;
+
+    // time spent on each move, in nanoseconds
+    private final long timeLimit;
+
+    // one tree per worker thread
+    private final Tree[] trees;
+    private final ForkJoinPool pool;
+
+    // work done by the last search, for reporting
+    private long lastRollouts;
+    private long lastNanos;
+
+    /**
+     * Creates a player with one thread per core and default settings.
+     */
+    public MonteCarloPlayer() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_EXPLORATION, DEFAULT_TIME, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param threads       number of worker threads (each with its own tree)
+     * @param exploration   weight of the exploration term in UCT
+     * @param timeMillis    time spent on each move, in milliseconds
+     * @param capacity      number of nodes each worker's tree can grow to
+     */
+    public MonteCarloPlayer(int threads, double exploration, long timeMillis, int capacity) {
+        this.exploration = exploration;
+        this.timeLimit = timeMillis * 1000000L;
+        this.pool = new ForkJoinPool(threads);
+
+        trees = new Tree[threads];
+        for (int i = 0; i < threads; i++) {
+            trees[i] = new Tree(capacity, 0x9E3779B97F4A7C15L * (i + 1));
+        }
+    }
+
+    // functions that reference the work done by the last search.
+    public long getRollouts() {
+        return lastRollouts;
+    }
+
+    public double getRolloutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastRollouts * 1e9 / lastNanos;
+    }
+
+    @Override
+    public int bestMove(GameState game) {
+        if (game.isOver()) {
+            return -1;
+        }
+
+        // always take a win on the spot
+        for (int c = 0; c < game.getNumColumns(); c++) {
+            if (game.isWinningMove(c)) {
+                return c;
+            }
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + timeLimit;
+
+        List<Callable<Long>> searches = new ArrayList<Callable<Long>>();
+        for (Tree tree : trees) {
+            searches.add(() -> tree.search(game, deadline));
+        }
+
+        long rollouts = 0;
+        for (Future<Long> f : pool.invokeAll(searches)) {
+            try {
+                rollouts += f.get();
+            }
+            catch (Exception e) {
+                throw new IllegalStateException("Monte Carlo search failed", e);
+            }
+        }
+
+        lastRollouts = rollouts;
+        lastNanos = System.nanoTime() - start;
+
+        // the most visited move is the most trusted one
+        long[] visits = new long[game.getNumColumns()];
+        for (Tree tree : trees) {
+            tree.addRootVisits(visits);
+        }
+
+        int best = -1;
+        for (int c = 0; c < visits.length; c++) {
+            if (game.canPlay(c) && (best < 0 || visits[c] > visits[best])) {
+                best = c;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * One worker's search tree. Node i has visits[i] playouts through it, wins[i] points for the player who made
+     * its move (1 for a win, 0.5 for a draw), and its children are the count[i] nodes starting at first[i]
+     * (count is -1 until the node is expanded).
+     */
+    private class Tree {
+        private final int capacity;
+        private int[] parent;
+        private int[] first;
+        private int[] count;
+        private int[] move;
+        private int[] visits;
+        private float[] wins;
+
+        // number of nodes in use, and the node of the current position
+        private int size;
+        private int root;
+
+        // the current position, which every playout is played on and then undone back to
+        private GameState state;
+
+        // legal moves of the playout position
+        private int[] legal;
+
+        // random number generator state (xorshift)
+        private long seed;
+
+        private Tree(int capacity, long seed) {
+            this.capacity = capacity;
+
+            int nodes = Math.min(capacity, INITIAL_NODES);
+            parent = new int[nodes];
+            first = new int[nodes];
+            count = new int[nodes];
+            move = new int[nodes];
+            visits = new int[nodes];
+            wins = new float[nodes];
+            this.seed = seed;
+        }
+
+        /**
+         * Doubles the arrays (without going past the capacity) until they have room for the given number of nodes.
+         */
+        private void grow(int nodes) {
+            int length = parent.length;
+            while (length < nodes) {
+                length = (int) Math.min(capacity, 2L * length);
+            }
+
+            parent = Arrays.copyOf(parent, length);
+            first = Arrays.copyOf(first, length);
+            count = Arrays.copyOf(count, length);
+            move = Arrays.copyOf(move, length);
+            visits = Arrays.copyOf(visits, length);
+            wins = Arrays.copyOf(wins, length);
+        }
+
+        /**
+         * Runs playouts from the given position until the deadline.
+         * @return the number of playouts run
+         */
+        private long search(GameState game, long deadline) {
+            moveTo(game);
+
+            long rollouts = 0;
+            while (System.nanoTime() < deadline) {
+                // check the clock every few playouts only
+                for (int i = 0; i < 64; i++) {
+                    playout();
+                }
+                rollouts += 64;
+            }
+
+            return rollouts;
+        }
+
+        /**
+         * Moves the root to the given position, keeping the subtree below it if the game carried on from the
+         * last search, or starting a new tree otherwise.
+         */
+        private void moveTo(GameState game) {
+            boolean reuse = state != null
+                    && state.getNumRows() == game.getNumRows() && state.getNumColumns() == game.getNumColumns()
+                    && state.getMoveCount() <= game.getMoveCount()
+                    && size < capacity / 2;
+
+            // the game must start with the same moves as the tree's position
+            for (int i = 0; reuse && i < state.getMoveCount(); i++) {
+                reuse = state.getMove(i) == game.getMove(i);
+            }
+
+            // follow the moves played since, as long as the tree has them
+            for (int i = reuse ? state.getMoveCount() : 0; reuse && i < game.getMoveCount(); i++) {
+                int child = child(root, game.getMove(i));
+                if (child < 0) {
+                    reuse = false;
+                }
+                else {
+                    root = child;
+                    state.play(game.getMove(i));
+                }
+            }
+
+            if (!reuse) {
+                state = new GameState(game);
+                legal = new int[game.getNumColumns()];
+                size = 0;
+                root = newNode(-1, -1);
+            }
+        }
+
+        /**
+         * Returns the child of a node for a move, or -1 if it has none.
+         */
+        private int child(int node, int column) {
+            for (int i = 0; i < count[node]; i++) {
+                if (move[first[node] + i] == column) {
+                    return first[node] + i;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Takes the next node from the arrays.
+         */
+        private int newNode(int parentNode, int column) {
+            int node = size++;
+            parent[node] = parentNode;
+            move[node] = column;
+            count[node] = -1;
+            visits[node] = 0;
+            wins[node] = 0;
+            return node;
+        }
+
+        /**
+         * Runs one playout: walks down the tree with UCT, expands the node reached, plays random moves until the
+         * game ends, and records the result along the way back up.
+         */
+        private void playout() {
+            int node = root;
+            int played = 0;
+
+            // selection
+            while (count[node] > 0) {
+                node = select(node);
+                state.play(move[node]);
+                played++;
+            }
+
+            // expansion, while there is room in the tree
+            if (count[node] < 0 && !state.isOver() && size + state.getNumColumns() <= capacity) {
+                int n = state.legalMoves(legal);
+                if (size + n > parent.length) {
+                    grow(size + n);
+                }
+
+                first[node] = size;
+                count[node] = n;
+
+                for (int i = 0; i < n; i++) {
+                    newNode(node, legal[i]);
+                }
+
+                node = first[node] + (int) (nextRandom() % n);
+                state.play(move[node]);
+                played++;
+            }
+
+            // simulation
+            int depth = played;
+            while (!state.isOver()) {
+                int n = state.legalMoves(legal);
+                state.play(legal[(int) (nextRandom() % n)]);
+                played++;
+            }
+
+            int winner = state.getWinner();
+
+            // backpropagation: the player who made the move into a node is the one whose turn it wasn't after it
+            for (int d = depth; node >= 0; d--) {
+                visits[node]++;
+
+                if (node != root) {
+                    int mover = state.getCurrentPlayer() ^ ((played - d + 1) % 2);
+                    wins[node] += winner == GameState.NONE ? 0.5f : (winner == mover ? 1 : 0);
+                }
+
+                node = node == root ? -1 : parent[node];
+            }
+
+            // back to the root position
+            for (int i = 0; i < played; i++) {
+                state.undo();
+            }
+        }
+
+        /**
+         * Picks the child of a node with the best UCT value, trying every child once first.
+         */
+        private int select(int node) {
+            double logVisits = Math.log(visits[node]);
+            int best = first[node];
+            double bestValue = -1;
+
+            for (int i = first[node]; i < first[node] + count[node]; i++) {
+                if (visits[i] == 0) {
+                    return i;
+                }
+
+                double value = wins[i] / visits[i] + exploration * Math.sqrt(logVisits / visits[i]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Adds the visit counts of the root's children into visits, by column.
+         */
+        private void addRootVisits(long[] visits) {
+            for (int i = 0; i < count[root]; i++) {
+                visits[move[first[root] + i]] += this.visits[first[root] + i];
+            }
+        }
+
+        /**
+         * Returns the next pseudo-random non-negative long (xorshift64*).
+         */
+        private long nextRandom() {
+            seed ^= seed >>> 12;
+            seed ^= seed << 25;
+            seed ^= seed >>> 27;
+            return (seed * 0x2545F4914F6CDD1DL) >>> 1;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary log of every move played, so that games can be audited and analysed after their window is
+ * closed.
+ *
+ * The file starts with an 8-byte header, followed by one fixed-size 20-byte record per move:
+ *
+ *     int magic, int version
+ *     long gameId, long timestamp (milliseconds since 1970), byte numRows, byte numColumns, byte ply, byte column
+ *
+ * where ply is the number of moves played in the game before this one (0 starts a new game, stored as an
+ * unsigned byte). Records of different games may be interleaved.
+ *
+ * Records are collected in a direct buffer and written to the file in batches, so recording a move is just a
+ * few puts into memory. Call flush at the end of a game, and close when done. MoveJournalReader plays the
+ * journal back. If the program died in the middle of writing a record, the part written is cut off the end of
+ * the file when the journal is opened again, so the journal goes on from the last whole record.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class MoveJournal implements AutoCloseable {
+    // the file name the game records to
+    public static final String DEFAULT_FILE = "games.journal";
+
+    // "C4MJ", marks the start of a journal file
+    public static final int MAGIC = 0x43344D4A;
+    public static final int VERSION = 1;
+
+    // size of the header and of every record in bytes
+    public static final int HEADER = 2 * 4;
+    public static final int RECORD = 8 + 8 + 4;
+
+    // default number of records written at once
+    public static final int DEFAULT_BATCH = 4096;
+
+    // the file being appended to
+    private final FileChannel channel;
+
+    // records waiting to be written
+    private final ByteBuffer buffer;
+
+    /**
+     * Opens a journal with the default batch size.
+     * @param filename  the journal file, created if it doesn't exist yet
+     */
+    public MoveJournal(String filename) throws IOException {
+        this(filename, DEFAULT_BATCH);
+    }
+
+    /**
+     * @param filename  the journal file, created if it doesn't exist yet
+     * @param batch     number of records collected before they are written
+     */
+    public MoveJournal(String filename, int batch) throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        buffer = ByteBuffer.allocateDirect(batch * RECORD);
+
+        long size = channel.size();
+
+        // a new file gets a header, an existing one must already be a journal
+        if (size == 0) {
+            buffer.putInt(MAGIC).putInt(VERSION);
+            flush();
+        }
+        else if (size < HEADER) {
+            channel.close();
+            throw new IOException("`" + filename + "' is not a move journal");
+        }
+        else if ((size - HEADER) % RECORD != 0) {
+            // the last record was only partly written, so drop it rather than append whole records after it
+            long whole = size - (size - HEADER) % RECORD;
+            channel.truncate(whole);
+            System.err.println("Dropped a partly written record (" + (size - whole) + " bytes) at the end of the move journal `" + filename + "'");
+        }
+    }
+
+    /**
+     * Records a move that is about to be played (or has just been played) with the current time.
+     * @param gameId    identifies the game among every other game in the journal
+     * @param game      the game, in the position before the move
+     * @param column    the column played
+     */
+    public void record(long gameId, GameState game, int column) {
+        record(gameId, System.currentTimeMillis(), game.getNumRows(), game.getNumColumns(), game.getMoveCount(), column);
+    }
+
+    /**
+     * Records a move.
+     * @param gameId        identifies the game among every other game in the journal
+     * @param timestamp     when the move was played, in milliseconds since 1970
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     * @param ply           number of moves played in the game before this one
+     * @param column        the column played
+     */
+    public synchronized void record(long gameId, long timestamp, int numRows, int numColumns, int ply, int column) {
+        if (buffer.remaining() < RECORD) {
+            flush();
+        }
+
+        buffer.putLong(gameId)
+                .putLong(timestamp)
+                .put((byte) numRows)
+                .put((byte) numColumns)
+                .put((byte) ply)
+                .put((byte) column);
+    }
+
+    /**
+     * Writes every record collected so far to the file.
+     */
+    public synchronized void flush() {
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Couldn't write to the move journal -- " + e.getMessage());
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Writes what is left and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Plays the games stored in MoveJournal files back through GameState, move by move.
+ *
+ * Journal files are memory-mapped (in windows of up to 2 GB, so files of any size can be read) and decoded in
+ * place. Every game being played back gets a GameState from a pool, found by its game id in a LongMap, and the
+ * GameState goes back to the pool when its game ends. Once the pool and the map have grown to the number of
+ * games in progress at once, replaying allocates nothing per move.
+ *
+ * To summarise journals from the command line, run: java MoveJournalReader [files...]
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class MoveJournalReader {
+    /**
+     * Receives every move as it is played back.
+     */
+    public interface Listener {
+        /**
+         * Called after a move has been played.
+         * @param gameId        the game the move belongs to
+         * @param timestamp     when the move was played, in milliseconds since 1970
+         * @param game          the game, in the position after the move (only valid during the call)
+         * @param column        the column played
+         */
+        void move(long gameId, long timestamp, GameState game, int column);
+
+        /**
+         * Called when a game has been won or drawn, right after its last move.
+         */
+        default void gameOver(long gameId, GameState game) {
+        }
+    }
+
+    // the largest window mapped at once, a whole number of records
+    private static final long WINDOW = (Integer.MAX_VALUE / MoveJournal.RECORD) * (long) MoveJournal.RECORD;
+
+    // games being played back, by game id
+    private final LongMap<GameState> games;
+
+    // games that have ended, ready to be reused
+    private final GameStatePool pool;
+
+    // what the replays so far have found
+    private long moveCount;
+    private long gameCount;
+    private long finishedCount;
+    private long skippedCount;
+
+    public MoveJournalReader() {
+        games = new LongMap<GameState>(32);
+        pool = new GameStatePool();
+    }
+
+    // functions that reference what the replays so far have found.
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    public long getFinishedCount() {
+        return finishedCount;
+    }
+
+    /**
+     * Returns the number of records that couldn't be played: moves of games whose start isn't in the journal,
+     * moves out of order, and illegal moves.
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Returns the number of games started but not finished.
+     */
+    public int getLiveCount() {
+        return games.size();
+    }
+
+    /**
+     * Plays back every move in a journal file. Games still going at the end of the file carry on into the next
+     * file replayed.
+     */
+    public void replay(String filename, Listener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MoveJournal.HEADER));
+            if (size < MoveJournal.HEADER || header.getInt(0) != MoveJournal.MAGIC) {
+                throw new IOException("`" + filename + "' is not a move journal");
+            }
+
+            if (header.getInt(4) != MoveJournal.VERSION) {
+                throw new IOException("`" + filename + "' is journal version " + header.getInt(4) + ", expected " + MoveJournal.VERSION);
+            }
+
+            // a record cut off by a crash at the end of the file is ignored
+            long end = MoveJournal.HEADER + (size - MoveJournal.HEADER) / MoveJournal.RECORD * MoveJournal.RECORD;
+
+            for (long start = MoveJournal.HEADER; start < end; start += WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, end - start));
+
+                for (int i = 0; i < buffer.limit(); i += MoveJournal.RECORD) {
+                    replayRecord(buffer.getLong(i), buffer.getLong(i + 8), buffer.get(i + 16), buffer.get(i + 17),
+                            buffer.get(i + 18) & 0xFF, buffer.get(i + 19), listener);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays back one record.
+     */
+    private void replayRecord(long gameId, long timestamp, int numRows, int numColumns, int ply, int column, Listener listener) {
+        GameState game;
+
+        // a new game, which replaces any unfinished game with the same id
+        if (ply == 0) {
+            end(gameId);
+            game = pool.acquire(numRows, numColumns);
+            games.put(gameId, game);
+            gameCount++;
+        }
+        else {
+            game = games.get(gameId);
+
+            if (game == null || game.getMoveCount() != ply) {
+                skippedCount++;
+                return;
+            }
+        }
+
+        if (game.play(column) < 0) {
+            skippedCount++;
+            return;
+        }
+
+        moveCount++;
+        listener.move(gameId, timestamp, game, column);
+
+        if (game.isOver()) {
+            finishedCount++;
+            listener.gameOver(gameId, game);
+            end(gameId);
+        }
+    }
+
+    /**
+     * Stops playing back a game (if it is being played back) and returns its GameState to the pool.
+     */
+    private void end(long gameId) {
+        GameState game = games.remove(gameId);
+
+        if (game != null) {
+            pool.release(game);
+        }
+    }
+
+    /**
+     * Replays journals from the command line and prints a summary of the games in them.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            args = new String[] {MoveJournal.DEFAULT_FILE};
+        }
+
+        MoveJournalReader reader = new MoveJournalReader();
+
+        // results by winner: player one, player two, draw
+        long[] results = new long[3];
+
+        // every position reached, by Zobrist hash (about 100 MB, which holds a few million positions)
+        PositionStore positions = new PositionStore(1 << 22, PositionStore.Eviction.NONE);
+
+        Listener listener = new Listener() {
+            @Override
+            public void move(long gameId, long timestamp, GameState game, int column) {
+                positions.putIfAbsent(game.getHash(), 1);
+            }
+
+            @Override
+            public void gameOver(long gameId, GameState game) {
+                results[game.isDraw() ? 2 : game.getWinner()]++;
+            }
+        };
+
+        long start = System.nanoTime();
+        for (String filename : args) {
+            reader.replay(filename, listener);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Games:      " + reader.getGameCount() + " (" + reader.getLiveCount() + " unfinished)");
+        System.out.println("Moves:      " + reader.getMoveCount() + " (" + reader.getSkippedCount() + " skipped)");
+        System.out.println("Player 1:   " + results[0] + " wins");
+        System.out.println("Player 2:   " + results[1] + " wins");
+        System.out.println("Draws:      " + results[2]);
+        System.out.println("Positions:  " + positions.size() + " distinct"
+                + (positions.getDropped() > 0 ? " (at least, " + positions.getDropped() + " more didn't fit)" : ""));
+        System.out.println("Replayed in " + String.format("%.3f", seconds) + " s (" + (long) (reader.getMoveCount() / Math.max(seconds, 1e-9)) + " moves per second)");
+    }
+}
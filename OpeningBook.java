@@ -0,0 +1,339 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed exact scores of every early position on one board size, stored in a sorted binary file.
+ *
+ * Positions are identified by the key described in BitBoard.key (player one's checkers plus the mask of all
+ * checkers), and a position and its mirror image share one entry under the smaller of their two keys. The file
+ * holds a small header, every key in sorted order as 8-byte longs, then every score as a single byte:
+ *
+ *     int magic, int numRows, int numColumns, int depth, int count
+ *     long[count] keys
+ *     byte[count] scores
+ *
+ * Lookups memory-map the file and binary search the keys in place, so opening a book costs the same whatever
+ * its size and a lookup never allocates anything.
+ *
+ * Tablebases (see Tablebase) are opening books too, with the same header, but they keep their positions in a
+ * hash table of their own instead of sorted.
+ *
+ * To generate a book, run: java OpeningBook [rows] [columns] [depth] [filename]
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class OpeningBook {
+    // the file name the game looks for
+    public static final String DEFAULT_FILE = "book.bin";
+
+    // returned by get when a position isn't in the book
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    // "C4BK", marks the start of a book file
+    private static final int MAGIC = 0x43344B42;
+
+    // size of the header in bytes (the same for tablebases)
+    static final int HEADER = 5 * 4;
+
+    // the board the book was made for, and the number of moves it covers
+    private final int numRows;
+    private final int numColumns;
+    private final int depth;
+
+    // the number of positions in the book
+    private final int count;
+
+    // the mapped file
+    final MappedByteBuffer buffer;
+
+    /**
+     * Use load to open a book.
+     */
+    private OpeningBook(MappedByteBuffer buffer) {
+        this(buffer, MAGIC, "an opening book");
+    }
+
+    /**
+     * Reads the header of a mapped book or tablebase file.
+     * @param magic     the magic number the file must start with
+     * @param kind      what the file should be, for the error message
+     */
+    OpeningBook(MappedByteBuffer buffer, int magic, String kind) {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != magic) {
+            throw new IllegalArgumentException("Not " + kind);
+        }
+
+        numRows = buffer.getInt(4);
+        numColumns = buffer.getInt(8);
+        depth = buffer.getInt(12);
+        count = buffer.getInt(16);
+    }
+
+    /**
+     * Memory-maps a book file.
+     * @param filename  the book file
+     * @return the book, or null if there is no such file
+     */
+    public static OpeningBook load(String filename) throws IOException {
+        MappedByteBuffer buffer = map(filename);
+        return buffer != null ? new OpeningBook(buffer) : null;
+    }
+
+    /**
+     * Memory-maps a whole file for reading.
+     * @return the mapped file, or null if there is no such file
+     */
+    static MappedByteBuffer map(String filename) throws IOException {
+        File file = new File(filename);
+
+        if (!file.exists()) {
+            return null;
+        }
+
+        // the mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // functions that reference what the book covers.
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumColumns() {
+        return numColumns;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the score (for the player to move) of the position with the given key, or MISSING if it isn't in the book.
+     */
+    public int get(long key) {
+        key = canonical(key, numRows, numColumns);
+
+        // binary search straight in the mapped keys
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long k = buffer.getLong(HEADER + 8 * mid);
+
+            if (k < key) {
+                low = mid + 1;
+            }
+            else if (k > key) {
+                high = mid - 1;
+            }
+            else {
+                return buffer.get(HEADER + 8 * count + mid);
+            }
+        }
+
+        return MISSING;
+    }
+
+    /**
+     * Returns the smaller of a key and the key of its mirror image.
+     */
+    public static long canonical(long key, int numRows, int numColumns) {
+        int stride = numRows + 1;
+        long columnMask = (1L << stride) - 1;
+        long mirror = 0;
+
+        // every column of the key fits in its own stride bits, so the columns can simply be swapped around
+        for (int c = 0; c < numColumns; c++) {
+            mirror |= ((key >>> (c * stride)) & columnMask) << ((numColumns - 1 - c) * stride);
+        }
+
+        return Math.min(key, mirror);
+    }
+
+    /**
+     * Solves every position reachable in at most depth moves (where no one has won yet) and writes the book file.
+     * @param threads   number of positions solved at once
+     */
+    public static void generate(int numRows, int numColumns, int depth, String filename, int threads) throws IOException {
+        int stride = numRows + 1;
+
+        if (numColumns * stride > 64) {
+            throw new IllegalArgumentException("Opening books are only made for boards that fit in a single long");
+        }
+
+        // collect the positions one move at a time, dropping repeats (and mirror images) after every move
+        long[] level = {0L};
+        long[] all = level;
+
+        for (int moves = 0; moves < depth; moves++) {
+            level = nextLevel(level, moves, numRows, numColumns);
+
+            long[] merged = Arrays.copyOf(all, all.length + level.length);
+            System.arraycopy(level, 0, merged, all.length, level.length);
+            all = merged;
+
+            System.out.println("Move " + (moves + 1) + ": " + level.length + " positions");
+        }
+
+        // keys from different levels never repeat (they hold a different number of checkers), so sorting is enough
+        Arrays.sort(all);
+        byte[] scores = new byte[all.length];
+
+        // solve them in parallel, with one solver per thread sharing a table
+        TranspositionTable table = new TranspositionTable();
+        ThreadLocal<Solver> solvers = ThreadLocal.withInitial(() -> new Solver(table, Solver.DEFAULT_DEPTH));
+        AtomicInteger done = new AtomicInteger();
+        final long[] keys = all;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, keys.length).parallel().forEach(i -> {
+                long mask = maskOf(keys[i], numRows, numColumns);
+                long playerOne = keys[i] - mask;
+                long current = (Long.bitCount(mask) % 2 == 0) ? playerOne : playerOne ^ mask;
+
+                scores[i] = (byte) solvers.get().solve(numRows, numColumns, current, mask);
+
+                int d = done.incrementAndGet();
+                if (d % 1000 == 0) {
+                    System.out.println("Solved " + d + " of " + keys.length + " positions");
+                }
+            })).get();
+        }
+        catch (Exception e) {
+            throw new IOException("Couldn't solve the book positions", e);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        write(filename, numRows, numColumns, depth, keys, scores);
+    }
+
+    /**
+     * Writes a book file.
+     * @param depth     the number of moves the book covers
+     * @param keys      the canonical key of every position, sorted
+     * @param scores    the score of every position, in the same order
+     */
+    public static void write(String filename, int numRows, int numColumns, int depth, long[] keys, byte[] scores) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(numRows);
+            out.writeInt(numColumns);
+            out.writeInt(depth);
+            out.writeInt(keys.length);
+
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+
+            out.write(scores);
+        }
+
+        System.out.println("Saved " + keys.length + " positions in " + filename);
+    }
+
+    /**
+     * Returns the canonical keys of every position one move after the given ones where no one has won, sorted and
+     * without repeats.
+     * @param level     canonical keys of positions with the given number of moves played
+     */
+    public static long[] nextLevel(long[] level, int moves, int numRows, int numColumns) {
+        int stride = numRows + 1;
+        long[] next = new long[level.length * numColumns];
+        int n = 0;
+
+        for (long key : level) {
+            long mask = maskOf(key, numRows, numColumns);
+            long playerOne = key - mask;
+            long mover = (moves % 2 == 0) ? playerOne : playerOne ^ mask;
+
+            for (int c = 0; c < numColumns; c++) {
+                long top = 1L << (c * stride + numRows - 1);
+
+                if ((mask & top) != 0) {
+                    continue;
+                }
+
+                long move = (mask + (1L << (c * stride))) & (((1L << numRows) - 1) << (c * stride));
+
+                // positions where someone has won are over, so they aren't needed
+                if (BitBoard.isWin(mover | move, numRows)) {
+                    continue;
+                }
+
+                long childOne = (moves % 2 == 0) ? playerOne | move : playerOne;
+                next[n++] = canonical(childOne + (mask | move), numRows, numColumns);
+            }
+        }
+
+        return unique(next, n);
+    }
+
+    /**
+     * Recovers the mask of all checkers from a key: each column of the key is its checkers plus a single bit above them.
+     */
+    public static long maskOf(long key, int numRows, int numColumns) {
+        int stride = numRows + 1;
+        long columnMask = (1L << stride) - 1;
+        long mask = 0;
+
+        for (int c = 0; c < numColumns; c++) {
+            long column = (key >>> (c * stride)) & columnMask;
+
+            // the column holds h checkers when its value is between 2^h - 1 and 2^(h + 1) - 2
+            int h = 63 - Long.numberOfLeadingZeros(column + 1);
+            mask |= ((1L << h) - 1) << (c * stride);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Sorts the first n keys and drops the repeats.
+     */
+    private static long[] unique(long[] keys, int n) {
+        Arrays.sort(keys, 0, n);
+
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (m == 0 || keys[i] != keys[m - 1]) {
+                keys[m++] = keys[i];
+            }
+        }
+
+        return Arrays.copyOf(keys, m);
+    }
+
+    /**
+     * Generates a book from the command line.
+     */
+    public static void main(String[] args) throws IOException {
+        int numRows = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int numColumns = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        String filename = args.length > 3 ? args[3] : DEFAULT_FILE;
+
+        generate(numRows, numColumns, depth, filename, Runtime.getRuntime().availableProcessors());
+    }
+}
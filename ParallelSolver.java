@@ -0,0 +1,457 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the Solver on several cores at once.
+ *
+ * Exact solves use Lazy SMP: every worker thread runs the whole search at the same time, each starting from a
+ * different column, with its own Solver and one lock-free transposition table shared by all of them. Whatever a
+ * worker solves is there for the others to look up, so the search that starts center-first (the one that gives
+ * the answer) skips more and more of its tree the more workers help it.
+ *
+ * The depth-limited search is split up instead, young brothers wait style: at every node deep enough to be worth
+ * it, the first column is searched on its own, then every other column at once with the window it narrowed, as
+ * tasks in a ForkJoinPool. The work spreads over as many threads as there are nodes being split, not just over the
+ * columns of the root. The bottom of the tree is searched by the workers' Solvers, which share one PositionStore
+ * of depth-limited results. Moves are chosen within a time per move, the same way as Solver.bestMove.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class ParallelSolver implements Engine {
+    // depth-limited searches are split up down to nodes with this many moves left to search, and those are
+    // searched by one worker on its own (a few thousand positions, so each task is worth handing out)
+    private static final int SPLIT_DEPTH = 5;
+
+    // the table and the position store shared by every worker
+    private final TranspositionTable table;
+    private final PositionStore positions;
+
+    // depth limit passed on to every worker's Solver
+    private final int maxDepth;
+
+    // the threads doing the work
+    private final ForkJoinPool pool;
+
+    // one Solver per worker thread, and a list of all of them to add up the work done
+    private final ThreadLocal<Solver> solvers;
+    private final ConcurrentLinkedQueue<Solver> allSolvers;
+
+    // opening book handed to every worker (null if none)
+    private volatile OpeningBook book;
+
+    // time bestMove spends on a move it can't solve exactly right away, in nanoseconds (0 for no limit)
+    private volatile long moveTime = Solver.DEFAULT_MOVE_TIME * 1_000_000;
+
+    /**
+     * Creates a parallel solver with one thread per core and a default size table.
+     */
+    public ParallelSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads   number of worker threads
+     */
+    public ParallelSolver(int threads) {
+        this(new TranspositionTable(), Solver.DEFAULT_DEPTH, threads);
+    }
+
+    /**
+     * @param table     transposition table shared by every worker
+     * @param maxDepth  number of moves looked ahead on boards too big to solve exactly
+     * @param threads   number of worker threads
+     */
+    public ParallelSolver(TranspositionTable table, int maxDepth, int threads) {
+        this.table = table;
+        this.positions = new PositionStore(Solver.DEFAULT_POSITIONS, PositionStore.Eviction.ALWAYS);
+        this.maxDepth = maxDepth;
+        this.pool = new ForkJoinPool(threads);
+        this.allSolvers = new ConcurrentLinkedQueue<Solver>();
+        this.solvers = ThreadLocal.withInitial(() -> {
+            Solver solver = new Solver(this.table, this.positions, this.maxDepth, true);
+            solver.setOpeningBook(book);
+            allSolvers.add(solver);
+            return solver;
+        });
+    }
+
+    // functions that reference the work done.
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public long getMoveTime() {
+        return moveTime / 1_000_000;
+    }
+
+    /**
+     * Sets the time bestMove spends on a move, see Solver.setMoveTime.
+     */
+    public void setMoveTime(long millis) {
+        moveTime = millis * 1_000_000;
+    }
+
+    /**
+     * Lets every worker look up early positions in an opening book instead of searching them.
+     * Only call this between searches.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+
+        for (Solver solver : allSolvers) {
+            solver.setOpeningBook(book);
+        }
+    }
+
+    /**
+     * Returns the number of positions visited by every worker since the solver was created.
+     */
+    public long getNodeCount() {
+        long total = 0;
+        for (Solver solver : allSolvers) {
+            total += solver.getNodeCount();
+        }
+
+        return total;
+    }
+
+    /**
+     * Finds the best column for the player to move within the time per move, see Solver.bestMove.
+     * @return the best column, or -1 if the game is over
+     */
+    @Override
+    public int bestMove(GameState game) {
+        long start = System.nanoTime();
+
+        if (game.isOver()) {
+            return -1;
+        }
+
+        GameState root = new GameState(game);
+        int[] columns = Solver.columnOrder(root.getNumColumns());
+
+        // always take a win on the spot
+        for (int column : columns) {
+            if (root.isWinningMove(column)) {
+                return column;
+            }
+        }
+
+        if (Solver.canSolve(root)) {
+            if (moveTime == 0 || solvers.get().inReach(root)) {
+                return searchRoot(root, Solver.EXACT, 0)[0];
+            }
+
+            // try to solve it anyway, then fall back on the depth-limited search for the rest of the time
+            int[] best = searchRoot(root, Solver.EXACT, start + moveTime / 2);
+            if (best != null) {
+                return best[0];
+            }
+        }
+
+        else if (moveTime == 0) {
+            return searchRoot(root, maxDepth, 0)[0];
+        }
+
+        // search deeper and deeper until the time is up, and play the best move of the deepest search that finished
+        int column = -1;
+        int empty = root.getNumRows() * root.getNumColumns() - root.getMoveCount();
+
+        for (int depth = 1; depth <= empty; depth++) {
+            int[] best = searchRoot(root, depth, start + moveTime);
+
+            if (best == null) {
+                break;
+            }
+
+            column = best[0];
+        }
+
+        if (column < 0) {
+            for (int c : columns) {
+                if (root.canPlay(c)) {
+                    return c;
+                }
+            }
+        }
+
+        return column;
+    }
+
+    /**
+     * Returns the score of a game for the player to move, see Solver.solve.
+     */
+    public int solve(GameState game) {
+        // the last move won, so the player to move has lost
+        if (game.isWin()) {
+            return -(game.getNumRows() * game.getNumColumns() + 2 - game.getMoveCount()) / 2;
+        }
+
+        // a full board with no winner
+        if (game.isDraw()) {
+            return 0;
+        }
+
+        int depth = Solver.canSolve(game) ? Solver.EXACT : maxDepth;
+        return Solver.toScore(searchRoot(new GameState(game), depth, 0)[1], depth);
+    }
+
+    /**
+     * Finds the best column of a game with every worker, with a search of the given depth (or Solver.EXACT).
+     * @param deadline  System.nanoTime to give up at, or 0 for no limit
+     * @return the best column and its score (unscaled, see Solver.scoreMove), or null if the time ran out
+     */
+    private int[] searchRoot(GameState game, int depth, long deadline) {
+        if (depth == Solver.EXACT) {
+            return lazySearch(game, deadline);
+        }
+
+        return pool.invoke(new RootTask(game, depth, deadline));
+    }
+
+    /**
+     * Solves a game exactly with Lazy SMP: every worker runs the whole search at once, each starting from a
+     * different column, and fills the shared table with what it solves. The search starting center-first gives
+     * the answer, and the others are stopped once it has.
+     */
+    private int[] lazySearch(GameState game, long deadline) {
+        AtomicBoolean stop = new AtomicBoolean();
+
+        // the main search goes in first, so that it is never left waiting behind the helpers for a thread
+        ForkJoinTask<int[]> main = pool.submit(() -> solvers.get().searchRoot(game, Solver.EXACT, deadline, 0, null));
+
+        List<ForkJoinTask<int[]>> helpers = new ArrayList<ForkJoinTask<int[]>>();
+        for (int i = 1; i < pool.getParallelism(); i++) {
+            final int skew = i;
+            helpers.add(pool.submit(() -> solvers.get().searchRoot(game, Solver.EXACT, deadline, skew, stop::get)));
+        }
+
+        try {
+            return main.join();
+        }
+        finally {
+            // the helpers stop within a thousand positions, and are waited for so that searches never overlap
+            stop.set(true);
+            for (ForkJoinTask<int[]> helper : helpers) {
+                helper.join();
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Task that finds the best column of a game with the depth-limited search, split up the same way as
+     * SplitTask. Ties go to the column closest to the center.
+     */
+    private class RootTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        // the game searched (only read, never changed), the depth of the search, and when to give up (0 for never)
+        private final GameState game;
+        private final int depth;
+        private final long deadline;
+
+        private RootTask(GameState game, int depth, long deadline) {
+            this.game = game;
+            this.depth = depth;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected int[] compute() {
+            List<SplitTask> tasks = new ArrayList<SplitTask>();
+            List<Integer> columns = new ArrayList<Integer>();
+
+            int best = -1;
+            int bestScore = -Integer.MAX_VALUE;
+
+            for (int column : Solver.columnOrder(game.getNumColumns())) {
+                if (!game.canPlay(column)) {
+                    continue;
+                }
+
+                GameState child = new GameState(game);
+                child.play(column);
+
+                // the first column is searched on its own, and every other one only has to beat it
+                if (best < 0) {
+                    int score = new SplitTask(child, -Integer.MAX_VALUE, Integer.MAX_VALUE, depth - 1, deadline, null).compute();
+
+                    if (score == Solver.TIMED_OUT) {
+                        return null;
+                    }
+
+                    best = column;
+                    bestScore = -score;
+                }
+                else {
+                    tasks.add(new SplitTask(child, -Integer.MAX_VALUE, -bestScore, depth - 1, deadline, null));
+                    columns.add(column);
+                }
+            }
+
+            invokeAll(tasks);
+
+            for (int i = 0; i < tasks.size(); i++) {
+                int score = tasks.get(i).join();
+
+                if (score == Solver.TIMED_OUT) {
+                    return null;
+                }
+
+                if (-score > bestScore) {
+                    bestScore = -score;
+                    best = columns.get(i);
+                }
+            }
+
+            return new int[] {best, bestScore};
+        }
+    }
+
+    /**
+     * Task that runs the depth-limited search on a game, young brothers wait style: the first column is searched
+     * on its own to narrow the window, then every other column at once with that window, each split up again the
+     * same way until there are fewer than SPLIT_DEPTH moves left to search, and those are searched by the worker's
+     * own Solver. As soon as one column scores at least beta, the columns still being searched are called off.
+     * The score is the same as Solver.search would give with the same window.
+     */
+    private class SplitTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        // the game searched (never shared with another task), the window, the depth left and when to give up
+        private final GameState game;
+        private final int alpha;
+        private final int beta;
+        private final int depth;
+        private final long deadline;
+
+        // calls the task off when a column searched alongside it, or alongside a task above it, scores a cutoff
+        // (null if nothing can)
+        private final Cutoff cutoff;
+
+        private SplitTask(GameState game, int alpha, int beta, int depth, long deadline, Cutoff cutoff) {
+            this.game = game;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (cutoff != null && cutoff.getAsBoolean()) {
+                return Solver.TIMED_OUT;
+            }
+
+            if (depth < SPLIT_DEPTH) {
+                return solvers.get().search(game, alpha, beta, depth, deadline, cutoff);
+            }
+
+            int cells = game.getNumRows() * game.getNumColumns();
+            int moves = game.getMoveCount();
+
+            // the same scores Solver.search gives a game that is over or that the player to move wins on the spot
+            if (game.isOver()) {
+                return game.isWin() ? -(cells + 2 - moves) / 2 * Solver.HEURISTIC_SCALE : 0;
+            }
+
+            int[] order = Solver.columnOrder(game.getNumColumns());
+            for (int column : order) {
+                if (game.canPlay(column) && game.isWinningMove(column)) {
+                    return (cells + 1 - moves) / 2 * Solver.HEURISTIC_SCALE;
+                }
+            }
+
+            List<SplitTask> tasks = new ArrayList<SplitTask>();
+            Cutoff siblings = new Cutoff(cutoff);
+            int a = alpha;
+            boolean first = true;
+
+            for (int column : order) {
+                if (!game.canPlay(column)) {
+                    continue;
+                }
+
+                GameState child = new GameState(game);
+                child.play(column);
+
+                if (first) {
+                    int score = new SplitTask(child, -beta, -a, depth - 1, deadline, cutoff).compute();
+
+                    if (score == Solver.TIMED_OUT) {
+                        return Solver.TIMED_OUT;
+                    }
+
+                    if (-score >= beta) {
+                        return -score;
+                    }
+
+                    a = Math.max(a, -score);
+                    first = false;
+                }
+                else {
+                    tasks.add(new SplitTask(child, -beta, -a, depth - 1, deadline, siblings));
+                }
+            }
+
+            for (SplitTask task : tasks) {
+                task.fork();
+            }
+
+            int best = a;
+            for (SplitTask task : tasks) {
+                int score = task.join();
+
+                if (score == Solver.TIMED_OUT) {
+                    return Solver.TIMED_OUT;
+                }
+
+                // a score at or above beta only has to be a lower bound, as in Solver.search, so the rest can stop
+                if (-score >= beta) {
+                    siblings.cut = true;
+                    return -score;
+                }
+
+                best = Math.max(best, -score);
+            }
+
+            return best;
+        }
+    }
+
+    /**
+     * Calls off a group of sibling tasks, and every task below them, once one of them has scored a cutoff.
+     */
+    private static class Cutoff implements BooleanSupplier {
+        // the cutoff of the tasks above (null at the top), which calls these off too
+        private final Cutoff parent;
+        private volatile boolean cut;
+
+        private Cutoff(Cutoff parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            return cut || (parent != null && parent.getAsBoolean());
+        }
+    }
+}
@@ -0,0 +1,265 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact encodings of positions, for saving and resuming games and for storing positions in bulk.
+ *
+ * Move strings: a game is written as its board size followed by every column played, one character each
+ * (1 to 9 for the first nine columns, then a, b, c...), like "6x7:4453". They keep the whole history, so a
+ * game read back can be played on and taken back just like the original.
+ *
+ * Packed keys: a position is written as the key described in BitBoard.key, player one's checkers plus the mask
+ * of all checkers, which gives every column its checkers plus a single bit above them. Boards that fit in a
+ * single long take one long (the same value as GameState.key), bigger boards take as many longs as BitBoard
+ * uses per player. Packed keys only hold the position, not the order its checkers were played in.
+ *
+ * Position files hold any number of packed keys of one board size, written and read in bulk:
+ *
+ *     int magic, int version, int numRows, int numColumns, long count
+ *     count keys of words(numRows, numColumns) longs each
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class PositionCodec {
+    // "C4PS", marks the start of a position file
+    public static final int MAGIC = 0x43345053;
+    public static final int VERSION = 1;
+
+    // size of the header in bytes
+    public static final int HEADER = 4 * 4 + 8;
+
+    // number of longs written at once
+    private static final int BATCH = 1 << 16;
+
+    /**
+     * Positions read from a position file.
+     */
+    public static class Positions {
+        public final int numRows;
+        public final int numColumns;
+
+        // the number of longs in every key, and the number of keys
+        public final int words;
+        public final int count;
+
+        // every key, one after the other
+        public final long[] keys;
+
+        private Positions(int numRows, int numColumns, int count, long[] keys) {
+            this.numRows = numRows;
+            this.numColumns = numColumns;
+            this.words = PositionCodec.words(numRows, numColumns);
+            this.count = count;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Returns the number of longs in a packed key of the given board size.
+     */
+    public static int words(int numRows, int numColumns) {
+        return (numColumns * (numRows + 1) + 63) / 64;
+    }
+
+    /**
+     * Returns the move string of a game, see above.
+     */
+    public static String toMoves(GameState game) {
+        StringBuilder moves = new StringBuilder(game.getNumRows() + "x" + game.getNumColumns() + ":");
+
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            moves.append(Character.forDigit(game.getMove(i) + 1, Character.MAX_RADIX));
+        }
+
+        return moves.toString();
+    }
+
+    /**
+     * Plays out the game written in a move string.
+     * @throws IllegalArgumentException if the string isn't a move string or has a move that can't be played
+     */
+    public static GameState fromMoves(String moves) {
+        moves = moves.trim();
+        int x = moves.indexOf('x');
+        int colon = moves.indexOf(':');
+
+        if (x < 0 || colon < x) {
+            throw new IllegalArgumentException("Expected a move string like 6x7:4453, found `" + moves + "'");
+        }
+
+        GameState game;
+        try {
+            game = new GameState(Integer.parseInt(moves.substring(0, x)), Integer.parseInt(moves.substring(x + 1, colon)));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a board size like 6x7, found `" + moves.substring(0, colon) + "'");
+        }
+
+        for (int i = colon + 1; i < moves.length(); i++) {
+            int column = Character.digit(moves.charAt(i), Character.MAX_RADIX) - 1;
+
+            if (game.play(column) < 0) {
+                throw new IllegalArgumentException("Move " + (i - colon) + " (`" + moves.charAt(i) + "') can't be played");
+            }
+        }
+
+        return game;
+    }
+
+    /**
+     * Writes the packed key of a game's position into keys, starting at the given index.
+     */
+    public static void pack(GameState game, long[] keys, int offset) {
+        BitBoard board = game.getBoard();
+        long carry = 0;
+
+        // player one + mask as one number spread over several longs: a column split between two longs carries
+        // from the lower long into the higher one
+        for (int i = 0; i < board.getWords(); i++) {
+            long one = board.getWord(GameState.PLAYER_ONE, i);
+            long mask = one | board.getWord(GameState.PLAYER_TWO, i);
+
+            long sum = one + mask;
+            long total = sum + carry;
+            carry = (Long.compareUnsigned(sum, one) < 0 || Long.compareUnsigned(total, sum) < 0) ? 1 : 0;
+
+            keys[offset + i] = total;
+        }
+    }
+
+    /**
+     * Splits a packed key back into player one's checkers and the mask of all checkers, laid out like BitBoard.
+     * @param one       receives player one's checkers, words(numRows, numColumns) longs
+     * @param mask      receives every checker, words(numRows, numColumns) longs
+     * @throws IllegalArgumentException if the key doesn't hold a position of that board size
+     */
+    public static void unpack(long[] keys, int offset, int numRows, int numColumns, long[] one, long[] mask) {
+        int stride = numRows + 1;
+        int words = words(numRows, numColumns);
+
+        for (int i = 0; i < words; i++) {
+            one[i] = 0;
+            mask[i] = 0;
+        }
+
+        for (int c = 0; c < numColumns; c++) {
+            long value = bits(keys, offset, c * stride, stride);
+
+            // a column of h checkers reads between 2^h - 1 and 2^(h + 1) - 2
+            int h = 63 - Long.numberOfLeadingZeros(value + 1);
+            if (h > numRows) {
+                throw new IllegalArgumentException("Column " + c + " of the key doesn't fit on a " + numRows + "x" + numColumns + " board");
+            }
+
+            long columnMask = (1L << h) - 1;
+            setBits(one, c * stride, value - columnMask);
+            setBits(mask, c * stride, columnMask);
+        }
+    }
+
+    /**
+     * Reads length bits (at most 63) starting at bit position of a number spread over several longs.
+     */
+    private static long bits(long[] words, int offset, int position, int length) {
+        int i = position >>> 6;
+        int shift = position & 63;
+        long value = words[offset + i] >>> shift;
+
+        // the rest of the bits are at the bottom of the next long
+        if (shift + length > 64) {
+            value |= words[offset + i + 1] << (64 - shift);
+        }
+
+        return value & ((1L << length) - 1);
+    }
+
+    /**
+     * Ors bits into a number spread over several longs, starting at bit position.
+     */
+    private static void setBits(long[] words, int position, long value) {
+        int i = position >>> 6;
+        int shift = position & 63;
+        words[i] |= value << shift;
+
+        if (shift != 0 && i + 1 < words.length) {
+            words[i + 1] |= value >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Writes packed keys to a position file, replacing it if it exists.
+     * @param keys      count keys of words(numRows, numColumns) longs each, one after the other
+     */
+    public static void write(String filename, int numRows, int numColumns, long[] keys, int count) throws IOException {
+        long total = (long) count * words(numRows, numColumns);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH * 8);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(numRows).putInt(numColumns).putLong(count);
+
+            // copy the keys into the buffer a batch at a time, writing it out whenever it fills up
+            for (long written = 0; written < total; ) {
+                int n = (int) Math.min(buffer.remaining() / 8, total - written);
+                buffer.asLongBuffer().put(keys, (int) written, n);
+                buffer.position(buffer.position() + 8 * n);
+                written += n;
+
+                if (buffer.remaining() < 8 || written == total) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+
+            // an empty file still gets its header
+            if (buffer.position() > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every packed key of a position file.
+     * @throws IOException if the file can't be read or isn't a position file
+     */
+    public static Positions read(String filename) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(filename, "r"); FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("`" + filename + "' is not a position file (or is too big to read at once)");
+            }
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (map.getInt() != MAGIC || map.getInt() != VERSION) {
+                throw new IOException("`" + filename + "' is not a position file");
+            }
+
+            int numRows = map.getInt();
+            int numColumns = map.getInt();
+            long count = map.getLong();
+            long total = count * words(numRows, numColumns);
+
+            if (numRows < 1 || numColumns < 1 || HEADER + 8 * total != channel.size()) {
+                throw new IOException("`" + filename + "' is cut short or damaged");
+            }
+
+            long[] keys = new long[(int) total];
+            LongBuffer longs = map.asLongBuffer();
+            longs.get(keys);
+
+            return new Positions(numRows, numColumns, (int) count, keys);
+        }
+    }
+}
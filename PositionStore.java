@@ -0,0 +1,253 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size table of positions, keyed by a 64-bit position hash (see GameState.getHash) and holding a 64-bit
+ * value for each, that any number of threads can read and write at once without locks.
+ *
+ * The table never grows: its memory (24 bytes per slot) is allocated up front. Slots are grouped in buckets of
+ * four, and a key only ever lives in its own bucket. When the bucket of a new key is full, the eviction policy
+ * decides what happens:
+ *  - NONE      the new key is dropped (and counted), so every key stored stays stored, e.g. to count distinct
+ *              positions exactly while the table has room
+ *  - ALWAYS    one of the four entries is replaced, e.g. for a cache of recent search results
+ *  - SMALLEST  the entry with the smallest value is replaced, but only by a larger value, e.g. to keep the
+ *              results of the deepest searches or the most common positions
+ *
+ * Every slot stores its key, its value and the two xor-ed together. A reader that sees a key and value from two
+ * different writes finds they don't match the check and treats the lookup as a miss.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class PositionStore {
+    /**
+     * What to do when the bucket of a new key is full.
+     */
+    public enum Eviction {
+        NONE, ALWAYS, SMALLEST
+    }
+
+    // number of slots per bucket
+    private static final int BUCKET = 4;
+
+    // marks an empty slot, keys equal to it are stored as REPLACEMENT instead (a 1 in 2^64 collision)
+    private static final long EMPTY = 0;
+    private static final long REPLACEMENT = 0x8000000000000001L;
+
+    private final Eviction eviction;
+
+    // the slots, bucket b holding slots BUCKET * b to BUCKET * b + BUCKET - 1
+    private final AtomicLongArray keys;
+    private final AtomicLongArray values;
+    private final AtomicLongArray checks;
+    private final int bucketMask;
+
+    // the number of keys stored, and the number of new keys dropped or evicted (counted per thread, then added up)
+    private final LongAdder size;
+    private final LongAdder dropped;
+    private final LongAdder evicted;
+
+    /**
+     * @param capacity  number of slots, rounded up to a power of two (at least one bucket)
+     * @param eviction  what to do when the bucket of a new key is full
+     */
+    public PositionStore(int capacity, Eviction eviction) {
+        int slots = BUCKET;
+        while (slots < capacity) {
+            slots *= 2;
+        }
+
+        this.eviction = eviction;
+        keys = new AtomicLongArray(slots);
+        values = new AtomicLongArray(slots);
+        checks = new AtomicLongArray(slots);
+        bucketMask = slots / BUCKET - 1;
+
+        size = new LongAdder();
+        dropped = new LongAdder();
+        evicted = new LongAdder();
+    }
+
+    // functions that reference how full the store is.
+    public int getCapacity() {
+        return keys.length();
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Returns the number of new keys that weren't stored because their bucket was full.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of keys that were pushed out by new ones.
+     */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    /**
+     * Returns the first slot of a key's bucket.
+     */
+    private int bucket(long key) {
+        // the low bits of the hashes are used elsewhere (table indexes), so mix in the high ones
+        return (int) ((key ^ (key >>> 29)) & bucketMask) * BUCKET;
+    }
+
+    /**
+     * Returns the value stored for a key, or missing if there is none.
+     */
+    public long get(long key, long missing) {
+        key = key == EMPTY ? REPLACEMENT : key;
+        int b = bucket(key);
+
+        for (int i = b; i < b + BUCKET; i++) {
+            if (keys.get(i) == key) {
+                long value = values.get(i);
+
+                // the slot may be rewritten for another key at the same time
+                if (checks.get(i) == (key ^ value) && keys.get(i) == key) {
+                    return value;
+                }
+
+                return missing;
+            }
+        }
+
+        return missing;
+    }
+
+    /**
+     * Returns true if the key is stored.
+     */
+    public boolean contains(long key) {
+        key = key == EMPTY ? REPLACEMENT : key;
+        int b = bucket(key);
+
+        for (int i = b; i < b + BUCKET; i++) {
+            if (keys.get(i) == key) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Stores a value for a key, replacing its old value if it has one.
+     * @return true if the value was stored, false if the key was new and had no room (see Eviction)
+     */
+    public boolean put(long key, long value) {
+        return store(key, value, true);
+    }
+
+    /**
+     * Stores a value for a key only if the key isn't stored yet.
+     * @return true if the key was new and was stored
+     */
+    public boolean putIfAbsent(long key, long value) {
+        return store(key, value, false);
+    }
+
+    /**
+     * Stores a key and value, either replacing the value of a key already stored or not.
+     */
+    private boolean store(long key, long value, boolean replace) {
+        key = key == EMPTY ? REPLACEMENT : key;
+        int b = bucket(key);
+
+        for (int i = b; i < b + BUCKET; i++) {
+            long k = keys.get(i);
+
+            // claim an empty slot; if another thread claims it first, look at what it put there
+            if (k == EMPTY) {
+                if (keys.compareAndSet(i, EMPTY, key)) {
+                    write(i, key, value);
+                    size.increment();
+                    return true;
+                }
+                k = keys.get(i);
+            }
+
+            if (k == key) {
+                if (replace) {
+                    write(i, key, value);
+                }
+                return replace;
+            }
+        }
+
+        // the bucket is full of other keys
+        int victim = victim(b, key, value);
+
+        if (victim < 0) {
+            dropped.increment();
+            return false;
+        }
+
+        long old = keys.get(victim);
+        if (old == EMPTY || !keys.compareAndSet(victim, old, key)) {
+            // another thread changed the slot first, so give up rather than spin
+            dropped.increment();
+            return false;
+        }
+
+        write(victim, key, value);
+        evicted.increment();
+        return true;
+    }
+
+    /**
+     * Picks the slot of a full bucket that a new key replaces, or -1 if it replaces none.
+     */
+    private int victim(int b, long key, long value) {
+        switch (eviction) {
+            case ALWAYS:
+                // spread the replacements over the bucket with bits of the key that don't pick the bucket
+                return b + (int) (key >>> 60) % BUCKET;
+
+            case SMALLEST:
+                int smallest = -1;
+                long smallestValue = value;
+                for (int i = b; i < b + BUCKET; i++) {
+                    long v = values.get(i);
+                    if (v < smallestValue) {
+                        smallestValue = v;
+                        smallest = i;
+                    }
+                }
+                return smallest;
+
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Writes the value and the check of a slot whose key has been set.
+     */
+    private void write(int i, long key, long value) {
+        values.set(i, value);
+        checks.set(i, key ^ value);
+    }
+
+    /**
+     * Empties the store. Only call this while no other thread is using it.
+     */
+    public void clear() {
+        for (int i = 0; i < keys.length(); i++) {
+            keys.set(i, EMPTY);
+            values.set(i, 0);
+            checks.set(i, 0);
+        }
+
+        size.reset();
+        dropped.reset();
+        evicted.reset();
+    }
+}
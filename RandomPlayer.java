@@ -0,0 +1,41 @@
+/**
+ * Computer player that drops its checker into a random column that isn't full. Useful as the weakest opponent
+ * when comparing engines.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class RandomPlayer implements Engine {
+    // random number generator state (xorshift)
+    private long seed;
+
+    // legal moves of the current position
+    private int[] legal;
+
+    /**
+     * @param seed  starting point of the random moves (any value but 0)
+     */
+    public RandomPlayer(long seed) {
+        this.seed = seed == 0 ? 1 : seed;
+        this.legal = new int[0];
+    }
+
+    @Override
+    public int bestMove(GameState game) {
+        if (legal.length < game.getNumColumns()) {
+            legal = new int[game.getNumColumns()];
+        }
+
+        int n = game.legalMoves(legal);
+        return n == 0 ? -1 : legal[nextInt(n)];
+    }
+
+    /**
+     * Returns a pseudo-random number from 0 (inclusive) to n (exclusive), using xorshift64*.
+     */
+    public int nextInt(int n) {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return (int) (((seed * 0x2545F4914F6CDD1DL) >>> 1) % n);
+    }
+}
@@ -0,0 +1,846 @@
+import java.util.function.BooleanSupplier;
+
+/**
+ * Computer opponent that searches a position with negamax and alpha-beta pruning to find the best column.
+ *
+ * Scores follow the usual convention: 0 is a draw, a positive score means the player to move can force a win
+ * (the faster the win, the higher the score: one point for every one of their own checkers left unplayed when
+ * they connect four), and a negative score means they lose.
+ *
+ * Boards that fit in a single long (like the standard 6x7 board) are searched exactly on two longs per position
+ * (the checkers of the player to move and the mask of all checkers), copied on every move instead of played
+ * and undone, with:
+ *  - moves that lose on the spot (not blocking a threat, or playing right under one) pruned before searching,
+ *  - moves ordered by how many new threats they create, ties broken center-first,
+ *  - a transposition table holding upper bounds of positions already searched,
+ *  - a null-window search that narrows down the exact score of the root.
+ * Bigger custom boards are searched on a GameState with a depth limit instead (and so is every board when the
+ * solver is created as depth-limited, to play at a chosen strength). Positions at the depth limit are scored by
+ * an Evaluator that follows the search move by move, so the search still prefers good positions it can't see
+ * the end of. Those heuristic scores are smaller than any win or loss, and count as draws in the scores solve
+ * and scoreMove return. Results of the depth-limited search are kept in a PositionStore keyed by the Zobrist hash
+ * of the position (GameState.getHash), so positions reached again by another order of moves, or by the next
+ * deeper search, aren't searched twice, and the best column found last time is tried first.
+ *
+ * An exact solve of an early position can take minutes (or, on boards like 7x8, forever), so bestMove only
+ * solves exactly without a time limit when the position is in reach: the opening book or tablebase covers it,
+ * or few cells are left empty. Otherwise it spends half of its time per move trying to solve the position
+ * anyway, then searches deeper and deeper with the depth limit until the time is up, and plays the best move
+ * of the deepest search that finished.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class Solver implements Engine {
+    // default search depth for boards too big to solve exactly
+    public static final int DEFAULT_DEPTH = 8;
+
+    // default time bestMove spends on a move it can't solve exactly right away, in milliseconds
+    public static final long DEFAULT_MOVE_TIME = 1000;
+
+    // positions with this many empty cells or fewer are always solved exactly (milliseconds on the 6x7 board)
+    public static final int EXACT_CELLS = 24;
+
+    // the depth passed to scoreMove for an exact solve, and the score it returns when it runs out of time
+    static final int EXACT = -1;
+    static final int TIMED_OUT = Integer.MIN_VALUE;
+
+    // the depth-limited search counts wins and losses in units this big, so that heuristic scores fit in between
+    static final int HEURISTIC_SCALE = 1 << 12;
+
+    // default number of depth-limited search results kept (24 bytes each)
+    public static final int DEFAULT_POSITIONS = 1 << 18;
+
+    // what a score kept in the position store says about the real one, and the value stored when there is none
+    private static final int EXACT_BOUND = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+    private static final long NO_POSITION = -1;
+
+    // the clock is only read once every this many positions (minus one), so checking it costs next to nothing
+    private static final int CLOCK_MASK = (1 << 10) - 1;
+
+    // thrown through the search when the time is up; it is always the same one, so throwing it costs nothing
+    private static final TimeUp TIME_UP = new TimeUp();
+
+    // shared by every search, so that positions solved for one move help with the next
+    private final TranspositionTable table;
+
+    // results of the depth-limited search, keyed by GameState.getHash, also kept from one move to the next
+    private final PositionStore positions;
+
+    // the maximum number of moves looked ahead (only used on boards that don't fit in a single long)
+    private final int maxDepth;
+
+    // true if boards that fit in a single long are solved exactly, false if every board is searched to maxDepth
+    private final boolean exact;
+
+    // the board the solver was last set up for, and the masks derived from it
+    private int numRows;
+    private int numColumns;
+    private int stride;
+    private long bottomMask;
+    private long boardMask;
+    private int[] columnOrder;
+
+    // move ordering buffers, one row per number of checkers on the board, so the search never allocates
+    private long[][] sortedMoves;
+    private int[][] sortedScores;
+
+    // heuristic scores of the positions at the depth limit, kept up to date as the depth-limited search moves
+    private Evaluator evaluator;
+
+    // the lowest possible score, used to store scores as small positive numbers in the table
+    private int minScore;
+
+    // precomputed scores of early positions (null if none), and the number of moves it covers on this board (-1 if none)
+    private OpeningBook book;
+    private int bookDepth;
+
+    // number of positions visited since the last call to solve or bestMove, for reporting
+    private long nodeCount;
+
+    // time bestMove spends on a move it can't solve exactly right away, in nanoseconds (0 for no limit)
+    private long moveTime = DEFAULT_MOVE_TIME * 1_000_000;
+
+    // System.nanoTime after which the search gives up (0 while there is no limit)
+    private long deadline;
+
+    // turns true when another thread wants the search to give up (null while nothing can stop it)
+    private BooleanSupplier stop;
+
+    /**
+     * Thrown when a search runs out of time, without a stack trace.
+     */
+    private static class TimeUp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private TimeUp() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Creates a solver with a default size transposition table.
+     */
+    public Solver() {
+        this(new TranspositionTable(), DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param table     transposition table used by the search
+     * @param maxDepth  number of moves looked ahead on boards too big to solve exactly
+     */
+    public Solver(TranspositionTable table, int maxDepth) {
+        this(table, maxDepth, true);
+    }
+
+    /**
+     * @param table     transposition table used by the search
+     * @param maxDepth  number of moves looked ahead on boards that aren't solved exactly
+     * @param exact     false to search every board to maxDepth, even the ones that could be solved exactly
+     */
+    public Solver(TranspositionTable table, int maxDepth, boolean exact) {
+        this(table, new PositionStore(DEFAULT_POSITIONS, PositionStore.Eviction.ALWAYS), maxDepth, exact);
+    }
+
+    /**
+     * @param table     transposition table used by the exact search
+     * @param positions position store used by the depth-limited search (may be shared with other solvers)
+     * @param maxDepth  number of moves looked ahead on boards that aren't solved exactly
+     * @param exact     false to search every board to maxDepth, even the ones that could be solved exactly
+     */
+    public Solver(TranspositionTable table, PositionStore positions, int maxDepth, boolean exact) {
+        this.table = table;
+        this.positions = positions;
+        this.maxDepth = maxDepth;
+        this.exact = exact;
+    }
+
+    // functions that reference the work done by the last search.
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public PositionStore getPositions() {
+        return positions;
+    }
+
+    public long getMoveTime() {
+        return moveTime / 1_000_000;
+    }
+
+    /**
+     * Sets the time bestMove spends on a move that isn't in reach of an exact solve, in milliseconds. With 0,
+     * every board that fits in a single long is solved exactly however long it takes, and bigger ones are
+     * searched to the depth limit.
+     */
+    public void setMoveTime(long millis) {
+        moveTime = millis * 1_000_000;
+    }
+
+    /**
+     * Lets the solver look up early positions in an opening book instead of searching them.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+
+        // make sure the book gets matched against the board on the next search
+        numRows = 0;
+        numColumns = 0;
+    }
+
+    /**
+     * Returns true if the game's board fits in a single long, so that it can be solved exactly.
+     */
+    public static boolean canSolve(GameState game) {
+        return game.getBoard().getWords() == 1;
+    }
+
+    /**
+     * Returns true if a game's position is solved exactly in no time: it fits in a single long, and the opening
+     * book (or tablebase) covers every move from it or only a few cells are left empty.
+     */
+    public boolean inReach(GameState game) {
+        setUp(game);
+
+        int moves = game.getMoveCount();
+        return canSolve(game) && (numRows * numColumns - moves <= EXACT_CELLS || moves < bookDepth);
+    }
+
+    /**
+     * Sets up the masks and the column order for the board of a game, if it isn't set up already.
+     */
+    private void setUp(GameState game) {
+        setUp(game.getNumRows(), game.getNumColumns());
+    }
+
+    /**
+     * Sets up the masks and the column order for a board size, if it isn't set up already.
+     */
+    private void setUp(int numRows, int numColumns) {
+        if (numRows == this.numRows && numColumns == this.numColumns) {
+            return;
+        }
+
+        // positions from another board size mean nothing here
+        if (this.numRows != 0 && (numRows != this.numRows || numColumns != this.numColumns)) {
+            table.clear();
+            positions.clear();
+        }
+
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+
+        // the book only helps if it was made for this board
+        bookDepth = (book != null && book.getNumRows() == numRows && book.getNumColumns() == numColumns) ? book.getDepth() : -1;
+
+        stride = numRows + 1;
+        minScore = -(numRows * numColumns) / 2 + 3;
+
+        bottomMask = 0;
+        for (int c = 0; c < numColumns; c++) {
+            bottomMask |= 1L << (c * stride);
+        }
+        boardMask = bottomMask * ((1L << numRows) - 1);
+
+        columnOrder = columnOrder(numColumns);
+
+        sortedMoves = new long[numRows * numColumns + 1][numColumns];
+        sortedScores = new int[numRows * numColumns + 1][numColumns];
+
+        evaluator = new Evaluator(numRows, numColumns);
+    }
+
+    /**
+     * Returns the columns of a board in the order they are searched: center columns first, then alternating
+     * outwards (left before right).
+     */
+    public static int[] columnOrder(int numColumns) {
+        int[] order = new int[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            order[i] = numColumns / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+
+        return order;
+    }
+
+    /**
+     * Returns the exact score of a game for the player to move (see above), or the depth-limited score on
+     * boards that aren't solved exactly.
+     */
+    public int solve(GameState game) {
+        setUp(game);
+        nodeCount = 0;
+
+        if (!exact || !canSolve(game)) {
+            GameState copy = new GameState(game);
+            evaluator.load(copy);
+            return search(copy, -Integer.MAX_VALUE, Integer.MAX_VALUE, maxDepth) / HEURISTIC_SCALE;
+        }
+
+        int moves = game.getMoveCount();
+        long current = game.getBoard().getWord(game.getCurrentPlayer(), 0);
+        long mask = current | game.getBoard().getWord(game.getCurrentPlayer() ^ 1, 0);
+
+        return solve(current, mask, moves);
+    }
+
+    /**
+     * Returns the exact score of a position given as packed checkers, for boards that fit in a single long.
+     * @param current   the checkers of the player to move
+     * @param mask      all the checkers on the board
+     */
+    public int solve(int numRows, int numColumns, long current, long mask) {
+        setUp(numRows, numColumns);
+        nodeCount = 0;
+
+        return solve(current, mask, Long.bitCount(mask));
+    }
+
+    /**
+     * Finds the best column for the player to move, within the time per move (see above). Columns with equal
+     * scores are broken center-first.
+     * @return the best column, or -1 if the game is over
+     */
+    @Override
+    public int bestMove(GameState game) {
+        setUp(game);
+        nodeCount = 0;
+        long start = System.nanoTime();
+
+        if (game.isOver()) {
+            return -1;
+        }
+
+        // always take a win on the spot
+        for (int column : columnOrder) {
+            if (game.isWinningMove(column)) {
+                return column;
+            }
+        }
+
+        // a depth-limited solver plays at the strength it was made for, however long that takes
+        if (!exact) {
+            return bestMove(game, maxDepth, 0);
+        }
+
+        if (canSolve(game)) {
+            if (moveTime == 0 || inReach(game)) {
+                return bestMove(game, EXACT, 0);
+            }
+
+            // try to solve it anyway: whatever was solved stays in the table for the search below and later moves
+            int column = bestMove(game, EXACT, start + moveTime / 2);
+            if (column >= 0) {
+                return column;
+            }
+        }
+
+        else if (moveTime == 0) {
+            return bestMove(game, maxDepth, 0);
+        }
+
+        return deepen(game, start + moveTime);
+    }
+
+    /**
+     * Searches deeper and deeper until the deadline, and returns the best column of the deepest search that
+     * finished (the first playable column if none did).
+     */
+    private int deepen(GameState game, long deadline) {
+        int best = -1;
+        int empty = numRows * numColumns - game.getMoveCount();
+
+        // a search as deep as the number of empty cells sees the end of every game, so it can't get any better
+        for (int depth = 1; depth <= empty; depth++) {
+            int column = bestMove(game, depth, deadline);
+
+            if (column < 0) {
+                break;
+            }
+
+            best = column;
+        }
+
+        if (best < 0) {
+            for (int column : columnOrder) {
+                if (game.canPlay(column)) {
+                    return column;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Finds the best column with a search of the given depth (or EXACT), giving up at the deadline.
+     * @param deadline  System.nanoTime to give up at, or 0 for no limit
+     * @return the best column, or -1 if the time ran out
+     */
+    private int bestMove(GameState game, int depth, long deadline) {
+        int[] best = searchRoot(game, depth, deadline, 0, null);
+        return best != null ? best[0] : -1;
+    }
+
+    /**
+     * Scores the columns of a game one after the other to find the best one, with a search of the given depth
+     * (or EXACT). Columns are tried center-first, starting skew places along that order (wrapping around), so
+     * that several solvers searching the same game at once (see ParallelSolver) start on different columns.
+     * @param deadline  System.nanoTime to give up at, or 0 for no limit
+     * @param stop      turns true when another thread wants the search to give up, checked every thousand
+     *                  positions or so (null if nothing else stops the search)
+     * @return the best column and its score (unscaled, see scoreMove), or null if the search gave up
+     */
+    int[] searchRoot(GameState game, int depth, long deadline, int skew, BooleanSupplier stop) {
+        setUp(game);
+        this.stop = stop;
+
+        try {
+            int best = -1;
+            int bestScore = -Integer.MAX_VALUE;
+
+            for (int i = 0; i < numColumns; i++) {
+                int column = columnOrder[(i + skew) % numColumns];
+
+                if (!game.canPlay(column)) {
+                    continue;
+                }
+
+                // columns that can't beat the best so far only need an upper bound
+                int score = scoreMove(game, column, bestScore, depth, deadline);
+
+                if (score == TIMED_OUT) {
+                    return null;
+                }
+
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = column;
+                }
+            }
+
+            return new int[] {best, bestScore};
+        }
+        finally {
+            this.stop = null;
+        }
+    }
+
+    /**
+     * Runs the depth-limited search on a game (see search), for ParallelSolver to search the bottom of a tree
+     * it has split up. The game itself is never changed.
+     * @param deadline  System.nanoTime to give up at, or 0 for no limit
+     * @param stop      turns true when another thread wants the search to give up (null if nothing does)
+     * @return the unscaled score for the player to move, or TIMED_OUT if the search gave up
+     */
+    int search(GameState game, int alpha, int beta, int depth, long deadline, BooleanSupplier stop) {
+        setUp(game);
+        this.deadline = deadline;
+        this.stop = stop;
+
+        try {
+            GameState copy = new GameState(game);
+            evaluator.load(copy);
+            return search(copy, alpha, beta, depth);
+        }
+        catch (TimeUp e) {
+            return TIMED_OUT;
+        }
+        finally {
+            this.deadline = 0;
+            this.stop = null;
+        }
+    }
+
+    /**
+     * Returns the score for the player to move of dropping a checker into the given column: exact on boards
+     * that fit in a single long (with no time limit), from the depth-limited search on the others. The game
+     * itself is never changed, so several solvers may score moves of the same game at once.
+     */
+    public int scoreMove(GameState game, int column) {
+        setUp(game);
+
+        int depth = (exact && canSolve(game)) ? EXACT : maxDepth;
+        return toScore(scoreMove(game, column, -Integer.MAX_VALUE, depth, 0), depth);
+    }
+
+    /**
+     * Scores a move with a search of the given depth, or an exact solve if depth is EXACT. Scores at or below the
+     * given bound only need to be upper bounds, and the scores of the depth-limited search come unscaled (see
+     * HEURISTIC_SCALE), so that moves can be told apart by their heuristic scores; toScore scales them.
+     * @param deadline  System.nanoTime to give up at, or 0 for no limit
+     * @return the score, or TIMED_OUT if the deadline passed first
+     */
+    int scoreMove(GameState game, int column, int bound, int depth, long deadline) {
+        setUp(game);
+        int moves = game.getMoveCount();
+
+        if (game.isWinningMove(column)) {
+            int score = (numRows * numColumns + 1 - moves) / 2;
+            return depth == EXACT ? score : score * HEURISTIC_SCALE;
+        }
+
+        this.deadline = deadline;
+
+        try {
+            if (depth == EXACT) {
+                long current = game.getBoard().getWord(game.getCurrentPlayer(), 0);
+                long mask = current | game.getBoard().getWord(game.getCurrentPlayer() ^ 1, 0);
+                long move = (mask + bottom(column)) & columnMask(column);
+
+                // the opponent moves next, so their score is the negation of ours: ours is at most the bound
+                // once theirs is known to be at least its negation
+                return -solve(current ^ mask, mask | move, moves + 1, -bound);
+            }
+
+            GameState copy = new GameState(game);
+            copy.play(column);
+            evaluator.load(copy);
+            return -search(copy, -Integer.MAX_VALUE, -bound, depth - 1);
+        }
+        catch (TimeUp e) {
+            return TIMED_OUT;
+        }
+        finally {
+            this.deadline = 0;
+        }
+    }
+
+    /**
+     * Turns a score from scoreMove into the scores solve and scoreMove return: depth-limited scores are scaled
+     * down, so heuristic scores count as draws.
+     */
+    static int toScore(int score, int depth) {
+        return depth == EXACT ? score : score / HEURISTIC_SCALE;
+    }
+
+    /**
+     * Finds the exact score of a single-long position by narrowing down a window around it with null-window searches.
+     */
+    private int solve(long current, long mask, int moves) {
+        return solve(current, mask, moves, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as above, except that scores at or above the ceiling only need to be lower bounds (at least the
+     * ceiling), which takes fewer searches.
+     */
+    private int solve(long current, long mask, int moves, int ceiling) {
+        int cells = numRows * numColumns;
+
+        // a win on the spot
+        if ((winningSpots(current, mask) & possible(mask)) != 0) {
+            return (cells + 1 - moves) / 2;
+        }
+
+        // a full board with no winner
+        if (moves == cells) {
+            return 0;
+        }
+
+        // early positions may already be in the book (it is keyed on player one's checkers)
+        if (moves <= bookDepth) {
+            long playerOne = (moves % 2 == 0) ? current : current ^ mask;
+            int score = book.get(playerOne + mask);
+
+            if (score != OpeningBook.MISSING) {
+                return score;
+            }
+        }
+
+        int min = -(cells - moves) / 2;
+        int max = Math.min((cells + 1 - moves) / 2, ceiling);
+
+        while (min < max) {
+            int med = min + (max - min) / 2;
+
+            // lean the guess towards zero, where most scores are found quickly
+            if (med <= 0 && min / 2 < med) {
+                med = min / 2;
+            }
+            else if (med >= 0 && max / 2 > med) {
+                med = max / 2;
+            }
+
+            // is the score above med or not?
+            int r = negamax(current, mask, moves, med, med + 1);
+            if (r <= med) {
+                max = r;
+            }
+            else {
+                min = r;
+            }
+        }
+
+        return min;
+    }
+
+    /**
+     * Negamax with alpha-beta pruning on a single-long position where the player to move can't win on the spot.
+     * @param current   the checkers of the player to move
+     * @param mask      all the checkers on the board
+     * @param moves     the number of checkers on the board
+     * @return the exact score if it is inside (alpha, beta), otherwise a bound on the same side of the window
+     */
+    private int negamax(long current, long mask, int moves, int alpha, int beta) {
+        checkClock();
+        int cells = numRows * numColumns;
+
+        long next = nonLosingMoves(current, mask);
+
+        // every move lets the opponent win right after
+        if (next == 0) {
+            return -(cells - moves) / 2;
+        }
+
+        // the opponent can't win with the last checkers left, so this is a draw
+        if (moves >= cells - 2) {
+            return 0;
+        }
+
+        // the opponent can't win on their next move, so the lowest score is losing two moves from now
+        int min = -(cells - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+
+        // we can't win on this move, so the highest score is winning on our next one, unless the table knows better
+        int max = (cells - 1 - moves) / 2;
+        long key = current + mask;
+        int stored = table.get(key);
+        if (stored != 0) {
+            max = stored + minScore - 1;
+        }
+
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        // order the moves by how many threats they leave us with; sorting is stable so center-first breaks ties
+        long[] sortedMoves = this.sortedMoves[moves];
+        int[] sortedScores = this.sortedScores[moves];
+        int n = 0;
+
+        for (int i = numColumns - 1; i >= 0; i--) {
+            long move = next & columnMask(columnOrder[i]);
+
+            if (move != 0) {
+                int score = Long.bitCount(winningSpots(current | move, mask));
+
+                // insertion sort, highest score first
+                int j = n++;
+                while (j > 0 && sortedScores[j - 1] > score) {
+                    sortedMoves[j] = sortedMoves[j - 1];
+                    sortedScores[j] = sortedScores[j - 1];
+                    j--;
+                }
+                sortedMoves[j] = move;
+                sortedScores[j] = score;
+            }
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            long move = sortedMoves[i];
+
+            // the opponent moves next: their checkers are the ones that aren't ours
+            int score = -negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+
+            if (score >= beta) {
+                return score;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+
+        // remember the upper bound for the next time this position comes up
+        table.put(key, alpha - minScore + 1);
+        return alpha;
+    }
+
+    /**
+     * Depth-limited negamax on a GameState, for boards that don't fit in a single long, with the evaluator
+     * following every move. Wins and losses are scaled by HEURISTIC_SCALE, and positions at the depth limit get
+     * their heuristic score, kept strictly in between.
+     *
+     * Stored results are only used by searches of the same depth, so the position store never changes the score,
+     * only how fast it is found: a search of any depth plays the same moves with or without it.
+     */
+    private int search(GameState game, int alpha, int beta, int depth) {
+        checkClock();
+        int cells = game.getNumRows() * game.getNumColumns();
+        int moves = game.getMoveCount();
+
+        if (game.isOver()) {
+            return game.isWin() ? -(cells + 2 - moves) / 2 * HEURISTIC_SCALE : 0;
+        }
+
+        int player = game.getCurrentPlayer();
+
+        // the evaluator already knows every cell that would connect four, so no lines are walked here
+        for (int column : columnOrder) {
+            if (game.canPlay(column) && evaluator.isThreat(player, column, game.getHeight(column))) {
+                return (cells + 1 - moves) / 2 * HEURISTIC_SCALE;
+            }
+        }
+
+        if (depth <= 0) {
+            int score = evaluator.evaluate(player);
+            return Math.max(-HEURISTIC_SCALE + 1, Math.min(HEURISTIC_SCALE - 1, score));
+        }
+
+        // the same position may have been searched to the same depth before, by another order of moves or an
+        // earlier search; either way the best column found then goes first
+        long key = game.getHash();
+        long stored = positions.get(key, NO_POSITION);
+        int first = -1;
+
+        if (stored != NO_POSITION) {
+            first = (int) (stored >>> 42) - 1;
+
+            if ((int) (stored >>> 34 & 0xFF) == Math.min(depth, 0xFF)) {
+                int score = (int) stored;
+                int bound = (int) (stored >>> 32 & 3);
+
+                if (bound == EXACT_BOUND || (bound == LOWER_BOUND && score >= beta) || (bound == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int start = alpha;
+        int best = first;
+
+        for (int i = first < 0 ? 0 : -1; i < numColumns; i++) {
+            int column = i < 0 ? first : columnOrder[i];
+
+            if ((i >= 0 && column == first) || !game.canPlay(column)) {
+                continue;
+            }
+
+            int row = game.play(column);
+            evaluator.play(column, row, player);
+            int score = -search(game, -beta, -alpha, depth - 1);
+            evaluator.undo(column, row, player);
+            game.undo();
+
+            if (score >= beta) {
+                store(key, score, LOWER_BOUND, depth, column);
+                return score;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                best = column;
+            }
+        }
+
+        store(key, alpha, alpha > start ? EXACT_BOUND : UPPER_BOUND, depth, best);
+        return alpha;
+    }
+
+    /**
+     * Keeps the result of a depth-limited search in the position store, packed into one long: the score in the
+     * low 32 bits, then two bits of bound, eight of depth and eight of the best column plus one (0 if none).
+     * Depths past 255 are stored as 255: no board has that many cells, so those searches all see the end of
+     * every game and score the same.
+     */
+    private void store(long key, int score, int bound, int depth, int column) {
+        long packedDepth = Math.min(depth, 0xFF);
+        positions.put(key, (long) (column + 1) << 42 | packedDepth << 34 | (long) bound << 32 | (score & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Counts a position, and gives up the search if the deadline has passed or another thread stopped it.
+     */
+    private void checkClock() {
+        if ((++nodeCount & CLOCK_MASK) == 0 && ((deadline != 0 && System.nanoTime() - deadline > 0)
+                || (stop != null && stop.getAsBoolean()))) {
+            throw TIME_UP;
+        }
+    }
+
+    /**
+     * Returns the empty cell at the bottom of every column that isn't full.
+     */
+    private long possible(long mask) {
+        return (mask + bottomMask) & boardMask;
+    }
+
+    /**
+     * Returns the moves that don't hand the opponent a win on their next turn.
+     */
+    private long nonLosingMoves(long current, long mask) {
+        long possible = possible(mask);
+        long opponentWins = winningSpots(current ^ mask, mask);
+        long forced = possible & opponentWins;
+
+        if (forced != 0) {
+            // two threats at once can't both be blocked
+            if ((forced & (forced - 1)) != 0) {
+                return 0;
+            }
+
+            possible = forced;
+        }
+
+        // never play right below a cell where the opponent would win
+        return possible & ~(opponentWins >>> 1);
+    }
+
+    /**
+     * Returns every empty cell where the given checkers would connect four.
+     */
+    private long winningSpots(long position, long mask) {
+        // vertical
+        long r = (position << 1) & (position << 2) & (position << 3);
+
+        // horizontal and both diagonals
+        r |= spots(position, stride);
+        r |= spots(position, stride - 1);
+        r |= spots(position, stride + 1);
+
+        return r & (boardMask ^ mask);
+    }
+
+    /**
+     * Returns every cell that completes four in a row along one direction, with the gap anywhere in the row.
+     */
+    private static long spots(long position, int d) {
+        long p = (position << d) & (position << (2 * d));
+        long r = p & (position << (3 * d));
+        r |= p & (position >>> d);
+
+        p = (position >>> d) & (position >>> (2 * d));
+        r |= p & (position << d);
+        r |= p & (position >>> (3 * d));
+
+        return r;
+    }
+
+    /**
+     * Returns the bit at the bottom of a column.
+     */
+    private long bottom(int column) {
+        return 1L << (column * stride);
+    }
+
+    /**
+     * Returns every playable cell of a column.
+     */
+    private long columnMask(int column) {
+        return ((1L << numRows) - 1) << (column * stride);
+    }
+}
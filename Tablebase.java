@@ -0,0 +1,301 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Complete table of the exact score of every reachable position on a small board (4x4 up to 5x5, which has about
+ * 25 million positions), built by retrograde analysis instead of searching.
+ *
+ * Every position is listed one move at a time, as for an opening book, all the way to a full board. The scores
+ * are then filled in backwards from the last level: a position's score only depends on the positions one move
+ * later, which are already scored, so every level is scored in parallel with no search at all. A score
+ * follows the Solver convention, so its sign tells a win, a loss or a draw for the player to move and its size
+ * tells how quickly.
+ *
+ * A tablebase is an opening book that covers every move of the game (keyed the same way, see OpeningBook), but
+ * it is looked up far more often, once for every position of every search, so instead of sorted keys its file
+ * holds a hash table of slots under its own magic number. Each slot is a long holding a key plus one (so that
+ * 0 marks an empty slot) shifted up by 8 bits, with the score in the low byte. The number of slots is a power of
+ * two, at least a third of them are empty, and collisions go to the next slot, so the Solver answers every
+ * position of that board by hashing the key and reading one or two slots of the mapped file:
+ *
+ *     int magic, int numRows, int numColumns, int depth, int count
+ *     long[size] slots
+ *
+ * Every position is held in memory while the table is made, so generate turns down boards of more than
+ * MAX_CELLS cells before listing anything.
+ *
+ * To generate a tablebase, run: java Tablebase [rows] [columns] [filename]
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class Tablebase extends OpeningBook {
+    // the biggest board a tablebase is made for, in cells
+    public static final int MAX_CELLS = 25;
+
+    // "C4TB", marks the start of a tablebase file
+    private static final int TABLE_MAGIC = 0x43345442;
+
+    // the most slots a tablebase can have, so that its file can still be mapped in one go
+    private static final int MAX_SLOTS = 1 << 27;
+
+    // the number of slots (a power of two), and how far to shift a hash to get a slot
+    private final int slots;
+    private final int shift;
+
+    /**
+     * Use load to open a tablebase.
+     */
+    private Tablebase(MappedByteBuffer buffer) {
+        super(buffer, TABLE_MAGIC, "a tablebase");
+
+        slots = (buffer.capacity() - HEADER) / 8;
+        shift = 64 - Integer.numberOfTrailingZeros(slots);
+
+        if (slots < 2 || Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Broken tablebase: " + slots + " slots");
+        }
+    }
+
+    /**
+     * Returns the file name the game looks for the tablebase of a board size in.
+     */
+    public static String fileName(int numRows, int numColumns) {
+        return "tablebase-" + numRows + "x" + numColumns + ".bin";
+    }
+
+    /**
+     * Memory-maps the tablebase of a board size.
+     * @return the tablebase, or null if it hasn't been generated
+     */
+    public static Tablebase load(int numRows, int numColumns) throws IOException {
+        MappedByteBuffer buffer = map(fileName(numRows, numColumns));
+        return buffer != null ? new Tablebase(buffer) : null;
+    }
+
+    /**
+     * Returns the score (for the player to move) of the position with the given key, or MISSING if it isn't in
+     * the tablebase (only positions where someone has already won). The key's slot is read first, then the ones
+     * after it until the key or an empty slot.
+     */
+    @Override
+    public int get(long key) {
+        key = canonical(key, getNumRows(), getNumColumns());
+
+        for (int i = slot(key, shift); ; i = (i + 1) & (slots - 1)) {
+            long s = buffer.getLong(HEADER + 8 * i);
+
+            if (s == 0) {
+                return MISSING;
+            }
+
+            if ((s >>> 8) == key + 1) {
+                return (byte) s;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot a key hashes to, from the top bits of the key times the golden ratio.
+     * @param shift     64 minus the log of the number of slots
+     */
+    private static int slot(long key, int shift) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Returns the number of slots for a tablebase of the given number of positions: the smallest power of two
+     * that leaves at least a third of them empty.
+     */
+    private static int tableSize(long count) {
+        long size = 2;
+        while (size * 3 < count * 4) {
+            size <<= 1;
+        }
+
+        if (size > MAX_SLOTS) {
+            throw new IllegalArgumentException("Too many positions for one table: " + count);
+        }
+
+        return (int) size;
+    }
+
+    /**
+     * Adds a position to the slots of a tablebase.
+     * @param slots     the slots, as many as tableSize gives
+     * @param key       the canonical key of the position (at most 55 bits)
+     * @param score     its score
+     */
+    private static void put(long[] slots, long key, int score) {
+        int shift = 64 - Integer.numberOfTrailingZeros(slots.length);
+
+        int i = slot(key, shift);
+        while (slots[i] != 0) {
+            i = (i + 1) & (slots.length - 1);
+        }
+
+        slots[i] = (key + 1) << 8 | (score & 0xFF);
+    }
+
+    /**
+     * Writes a tablebase file.
+     * @param depth     the number of moves it covers
+     * @param count     the number of positions in it
+     * @param slots     its slots, filled in with put
+     */
+    private static void writeTable(String filename, int numRows, int numColumns, int depth, int count, long[] slots) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(TABLE_MAGIC);
+            out.writeInt(numRows);
+            out.writeInt(numColumns);
+            out.writeInt(depth);
+            out.writeInt(count);
+
+            for (long slot : slots) {
+                out.writeLong(slot);
+            }
+        }
+
+        System.out.println("Saved " + count + " positions in " + filename);
+    }
+
+    /**
+     * Lists and scores every reachable position of a board, and writes the tablebase file.
+     * @param threads   number of positions scored at once
+     * @throws IllegalArgumentException if the board is too big for a tablebase
+     */
+    public static void generate(int numRows, int numColumns, String filename, int threads) throws IOException {
+        int stride = numRows + 1;
+        int cells = numRows * numColumns;
+
+        // checked before listing anything: the positions of a bigger board wouldn't fit in memory, or take years
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Tablebases are only made for boards of at most " + MAX_CELLS + " cells (like 5x5), not "
+                    + numRows + "x" + numColumns + " (" + cells + " cells) -- use an opening book for bigger boards");
+        }
+
+        // keys and scores are packed into one long per slot of the table, so keys get 55 bits
+        if (numColumns * stride > 55) {
+            throw new IllegalArgumentException("Tablebases are only made for boards of at most 55 cells (counting one extra row)");
+        }
+
+        // every position, by number of checkers
+        long[][] levels = new long[cells + 1][];
+        levels[0] = new long[] {0L};
+        long total = 1;
+
+        for (int moves = 0; moves < cells; moves++) {
+            levels[moves + 1] = OpeningBook.nextLevel(levels[moves], moves, numRows, numColumns);
+            total += levels[moves + 1].length;
+
+            System.out.println("Move " + (moves + 1) + ": " + levels[moves + 1].length + " positions");
+        }
+
+        long[] slots = new long[tableSize(total)];
+
+        // score every level from the last one back to the empty board
+        byte[][] scores = new byte[cells + 1][];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        try {
+            for (int moves = cells; moves >= 0; moves--) {
+                final int m = moves;
+                final long[] level = levels[m];
+                final long[] next = m < cells ? levels[m + 1] : null;
+                final byte[] nextScores = m < cells ? scores[m + 1] : null;
+                final byte[] levelScores = new byte[level.length];
+
+                pool.submit(() -> IntStream.range(0, level.length).parallel().forEach(i ->
+                        levelScores[i] = (byte) score(level[i], m, next, nextScores, numRows, numColumns))).get();
+
+                scores[m] = levelScores;
+                System.out.println("Scored move " + m + " (" + level.length + " positions)");
+            }
+        }
+        catch (Exception e) {
+            throw new IOException("Couldn't score the positions", e);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        // hash every key with its score into the table (keys from different levels never repeat)
+        for (int moves = 0; moves <= cells; moves++) {
+            for (int i = 0; i < levels[moves].length; i++) {
+                put(slots, levels[moves][i], scores[moves][i]);
+            }
+            levels[moves] = null;
+            scores[moves] = null;
+        }
+
+        writeTable(filename, numRows, numColumns, cells, (int) total, slots);
+    }
+
+    /**
+     * Scores one position from the scores of the positions one move later.
+     * @param key           canonical key of the position
+     * @param moves         the number of checkers on the board
+     * @param next          sorted canonical keys of every position one move later (null on a full board)
+     * @param nextScores    their scores
+     */
+    private static int score(long key, int moves, long[] next, byte[] nextScores, int numRows, int numColumns) {
+        int stride = numRows + 1;
+        int cells = numRows * numColumns;
+
+        // a full board with no winner
+        if (moves == cells) {
+            return 0;
+        }
+
+        long mask = OpeningBook.maskOf(key, numRows, numColumns);
+        long playerOne = key - mask;
+        long current = (moves % 2 == 0) ? playerOne : playerOne ^ mask;
+
+        int best = -Integer.MAX_VALUE;
+
+        for (int c = 0; c < numColumns; c++) {
+            if ((mask & (1L << (c * stride + numRows - 1))) != 0) {
+                continue;
+            }
+
+            long move = (mask + (1L << (c * stride))) & (((1L << numRows) - 1) << (c * stride));
+
+            // winning right away beats anything else
+            if (BitBoard.isWin(current | move, numRows)) {
+                return (cells + 1 - moves) / 2;
+            }
+
+            long childOne = (moves % 2 == 0) ? playerOne | move : playerOne;
+            long child = OpeningBook.canonical(childOne + (mask | move), numRows, numColumns);
+
+            // the opponent moves next, so our score is the negation of theirs
+            best = Math.max(best, -nextScores[Arrays.binarySearch(next, child)]);
+        }
+
+        return best;
+    }
+
+    /**
+     * Generates a tablebase from the command line.
+     */
+    public static void main(String[] args) throws IOException {
+        try {
+            int numRows = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+            int numColumns = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+            String filename = args.length > 2 ? args[2] : fileName(numRows, numColumns);
+
+            generate(numRows, numColumns, filename, Runtime.getRuntime().availableProcessors());
+        }
+        catch (IllegalArgumentException e) {
+            // NumberFormatException included, for rows or columns that aren't numbers
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java Tablebase [rows] [columns] [filename]");
+            System.exit(1);
+        }
+    }
+}
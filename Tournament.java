@@ -0,0 +1,367 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many games between two computer players without any graphics, spread over a pool of threads, and
+ * reports how often each player wins, how long the games last, how many games are played per second, and how
+ * long each player takes per move.
+ *
+ * Players are given by name:
+ *  - random        a random legal move
+ *  - greedy        wins or blocks on the spot, otherwise a random move that doesn't lose right away
+ *  - search:D      depth-limited alpha-beta search, looking D moves ahead
+ *  - perfect       the exact solver (boards that fit in a single long only, all threads share one table)
+ *  - mcts:T        Monte Carlo tree search, thinking T milliseconds per move on one thread
+ *
+ * The two players swap colors every game, and every game starts with a few random moves so that deterministic
+ * players don't play the same game over and over.
+ *
+ * To run a tournament, run: java Tournament [-games N] [-p1 PLAYER] [-p2 PLAYER] [-rows R] [-columns C]
+ *                                           [-threads T] [-openings K] [-seed S]
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class Tournament {
+    // the usage message printed when the options are wrong
+    public static final String USAGE = "Usage: java Tournament [-games N] [-p1 PLAYER] [-p2 PLAYER] [-rows R] [-columns C] [-threads T] [-openings K] [-seed S]";
+
+    // the board every game is played on
+    private final int numRows;
+    private final int numColumns;
+
+    // the names of the two players
+    private final String[] players;
+
+    // the number of games, the number of threads playing them, and the number of random moves each game starts with
+    private final int games;
+    private final int threads;
+    private final int openings;
+
+    // makes the random moves repeatable
+    private final long seed;
+
+    // shared by every thread's perfect player (null until one is made)
+    private TranspositionTable table;
+
+    // results: wins of each player, draws, and the total number of moves played
+    private final long[] wins = new long[2];
+    private long draws;
+    private long moves;
+
+    // time taken by each player for each of its moves, in nanoseconds, and the time the whole tournament took
+    private final LatencyHistogram[] latencies = {new LatencyHistogram(), new LatencyHistogram()};
+    private long elapsed;
+
+    /**
+     * @param numRows       number of rows in the board
+     * @param numColumns    number of columns in the board
+     * @param player1       name of the first player (see above)
+     * @param player2       name of the second player
+     * @param games         number of games played
+     * @param threads       number of games played at once
+     * @param openings      number of random moves each game starts with
+     * @param seed          makes the random moves repeatable
+     */
+    public Tournament(int numRows, int numColumns, String player1, String player2, int games, int threads, int openings, long seed) {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.players = new String[] {player1, player2};
+        this.games = games;
+        this.threads = threads;
+        this.openings = openings;
+        this.seed = seed;
+    }
+
+    // functions that reference the results.
+    public long getWins(int player) {
+        return wins[player];
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsed == 0 ? 0 : games * 1e9 / elapsed;
+    }
+
+    /**
+     * Makes a player from its name.
+     * @param seed  starting point of the player's random moves
+     */
+    public Engine createPlayer(String name, long seed) {
+        String[] parts = name.split(":");
+        String kind = parts[0].toLowerCase();
+
+        switch (kind) {
+            case "random":
+                return new RandomPlayer(seed);
+            case "greedy":
+                return new GreedyPlayer(seed);
+            case "search":
+                int depth = parts.length > 1 ? Integer.parseInt(parts[1]) : Solver.DEFAULT_DEPTH;
+                // the depth-limited search only uses the position store, not the table, so a tiny table will do
+                return new Solver(new TranspositionTable(1009), depth, false);
+            case "perfect":
+                if (numColumns * (numRows + 1) > 64) {
+                    throw new IllegalArgumentException("The perfect player only plays boards that fit in a single long");
+                }
+                // no time limit, so every move really is perfect
+                Solver perfect = new Solver(sharedTable(), Solver.DEFAULT_DEPTH);
+                perfect.setMoveTime(0);
+                return perfect;
+            case "mcts":
+                long time = parts.length > 1 ? Long.parseLong(parts[1]) : MonteCarloPlayer.DEFAULT_TIME;
+                return new MonteCarloPlayer(1, MonteCarloPlayer.DEFAULT_EXPLORATION, time, 1 << 18);
+            default:
+                throw new IllegalArgumentException("Unknown player `" + name + "' -- expected random, greedy, search:D, perfect or mcts:T");
+        }
+    }
+
+    /**
+     * Returns the table shared by every perfect player, making it the first time.
+     */
+    private synchronized TranspositionTable sharedTable() {
+        if (table == null) {
+            table = new TranspositionTable();
+        }
+
+        return table;
+    }
+
+    /**
+     * Plays every game, using all the threads, and collects the results.
+     */
+    public void run() throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        try {
+            List<Worker> workers = new ArrayList<Worker>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(new Worker(next, seed + 0x9E3779B97F4A7C15L * (i + 1)));
+            }
+
+            for (Future<Worker> f : pool.invokeAll(workers)) {
+                Worker worker = f.get();
+
+                for (int p = 0; p < 2; p++) {
+                    wins[p] += worker.wins[p];
+                    latencies[p].addAll(worker.latencies[p]);
+                }
+                draws += worker.draws;
+                moves += worker.moves;
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        elapsed = System.nanoTime() - start;
+    }
+
+    /**
+     * Prints the results of the tournament.
+     */
+    public void printReport() {
+        System.out.println(games + " games of " + players[0] + " against " + players[1] + " on a " + numRows + "x" + numColumns
+                + " board (" + threads + " threads, " + openings + " random opening moves)");
+        System.out.println();
+
+        for (int p = 0; p < 2; p++) {
+            System.out.println(String.format("%-16s %8d wins  (%5.1f%%)", players[p], wins[p], 100.0 * wins[p] / games));
+        }
+        System.out.println(String.format("%-16s %8d       (%5.1f%%)", "draws", draws, 100.0 * draws / games));
+        System.out.println();
+
+        System.out.println(String.format("Average game length:  %.1f moves", (double) moves / games));
+        System.out.println(String.format("Games per second:     %.1f  (%.3f s in total)", getGamesPerSecond(), elapsed / 1e9));
+        System.out.println();
+
+        System.out.println(LatencyHistogram.header("Move time (us)"));
+        for (int p = 0; p < 2; p++) {
+            System.out.println(latencies[p].summary(players[p]));
+        }
+    }
+
+    /**
+     * Plays games on one thread, taking the next game number from a shared counter until every game is played.
+     */
+    private class Worker implements Callable<Worker> {
+        // the next game to play, shared by every worker
+        private final AtomicInteger next;
+
+        // this worker's players and the game they play on
+        private final Engine[] engines;
+        private final GameState game;
+
+        // this worker's results
+        private final long[] wins = new long[2];
+        private long draws;
+        private long moves;
+        private final LatencyHistogram[] latencies = {new LatencyHistogram(), new LatencyHistogram()};
+
+        private Worker(AtomicInteger next, long seed) {
+            this.next = next;
+            this.engines = new Engine[] {createPlayer(players[0], seed), createPlayer(players[1], ~seed)};
+            this.game = new GameState(numRows, numColumns);
+        }
+
+        @Override
+        public Worker call() {
+            for (int g = next.getAndIncrement(); g < games; g = next.getAndIncrement()) {
+                play(g);
+            }
+
+            // Monte Carlo players have threads of their own to stop
+            for (Engine engine : engines) {
+                if (engine instanceof MonteCarloPlayer) {
+                    ((MonteCarloPlayer) engine).shutdown();
+                }
+            }
+
+            return this;
+        }
+
+        /**
+         * Plays one game. The players swap colors every game.
+         */
+        private void play(int g) {
+            game.reset();
+
+            // the index of the player who moves first
+            int first = g % 2;
+
+            // the opening moves only depend on the game number, so every run plays the same openings
+            RandomPlayer opening = new RandomPlayer(seed ^ (0x9E3779B97F4A7C15L * (g + 1)));
+            for (int i = 0; i < openings && !game.isOver(); i++) {
+                game.play(opening.bestMove(game));
+            }
+
+            while (!game.isOver()) {
+                int p = game.getCurrentPlayer() == GameState.PLAYER_ONE ? first : 1 - first;
+
+                long start = System.nanoTime();
+                int column = engines[p].bestMove(game);
+                latencies[p].record(System.nanoTime() - start);
+
+                if (game.play(column) < 0) {
+                    throw new IllegalStateException(players[p] + " played an illegal move in column " + column);
+                }
+            }
+
+            moves += game.getMoveCount();
+
+            if (game.isDraw()) {
+                draws++;
+            }
+            else {
+                wins[game.getWinner() == GameState.PLAYER_ONE ? first : 1 - first]++;
+            }
+        }
+    }
+
+    /**
+     * Parses the value of a numeric option, the same way as LaunchOptions.
+     * @param name      the name of the option, for the error message
+     * @throws IllegalArgumentException if the value isn't a number between min and max
+     */
+    private static int getInt(String name, String value, int min, int max) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n >= min && n <= max) {
+                return n;
+            }
+        }
+        catch (NumberFormatException e) {
+            // reported below
+        }
+
+        throw new IllegalArgumentException("The " + name + " must be a number between " + min + " and " + max + ", not `" + value + "'");
+    }
+
+    /**
+     * Runs a tournament from the command line.
+     */
+    public static void main(String[] args) throws Exception {
+        int numRows = 6;
+        int numColumns = 7;
+        String player1 = "greedy";
+        String player2 = "random";
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int openings = 2;
+        long seed = 1;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                // every option takes a value, so a last one without it is an error too
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing a value for `" + args[i] + "'");
+                }
+
+                String value = args[i + 1];
+
+                switch (args[i]) {
+                    case "-rows":
+                        numRows = getInt("rows", value, 4, 13);
+                        break;
+                    case "-columns":
+                        numColumns = getInt("columns", value, 4, 14);
+                        break;
+                    case "-p1":
+                        player1 = value;
+                        break;
+                    case "-p2":
+                        player2 = value;
+                        break;
+                    case "-games":
+                        games = getInt("games", value, 1, Integer.MAX_VALUE);
+                        break;
+                    case "-threads":
+                        threads = getInt("threads", value, 1, 4096);
+                        break;
+                    case "-openings":
+                        openings = getInt("openings", value, 0, 13 * 14);
+                        break;
+                    case "-seed":
+                        try {
+                            seed = Long.parseLong(value);
+                        }
+                        catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("The seed must be a number, not `" + value + "'");
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option `" + args[i] + "'");
+                }
+            }
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        Tournament tournament = new Tournament(numRows, numColumns, player1, player2, games, threads, openings, seed);
+
+        try {
+            tournament.run();
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        tournament.printReport();
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table used by the Solver to remember bounds on the scores of positions it has
+ * already searched.
+ *
+ * Entries live in two flat primitive arrays (no objects per entry), and a new entry simply overwrites
+ * whatever was stored in its slot before.
+ *
+ * The table can be shared by several threads without locks: each slot stores its key xor-ed with its value,
+ * so if two threads write the same slot at once and a reader sees the key of one and the value of the other,
+ * the key no longer checks out and the lookup just misses.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class TranspositionTable {
+    // default number of slots, a prime so that keys spread evenly (about 72 MB in total)
+    public static final int DEFAULT_SIZE = 8388593;
+
+    // the full key stored in each slot (xor-ed with the value), so that a lookup never returns the value of another position
+    private final long[] keys;
+
+    // the value stored in each slot (0 means empty)
+    private final byte[] values;
+
+    /**
+     * Creates a table with the default number of slots.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size      number of slots in the table (a prime works best)
+     */
+    public TranspositionTable(int size) {
+        keys = new long[size];
+        values = new byte[size];
+    }
+
+    /**
+     * Finds the slot for a key.
+     */
+    private int index(long key) {
+        return (int) Long.remainderUnsigned(key, keys.length);
+    }
+
+    /**
+     * Stores a value (between 1 and 127) for a key, replacing whatever was in its slot.
+     */
+    public void put(long key, int value) {
+        int i = index(key);
+        keys[i] = key ^ value;
+        values[i] = (byte) value;
+    }
+
+    /**
+     * Returns the value stored for a key, or 0 if there is none.
+     */
+    public int get(long key) {
+        int i = index(key);
+        int value = values[i];
+        return (keys[i] ^ value) == key ? value : 0;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, (byte) 0);
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Zobrist hashing of positions: every (player, cell) pair has its own random-looking 64-bit number, and the hash
+ * of a position is the xor of the numbers of every checker on the board. Playing or taking back a checker xors
+ * its number in or out, so games keep their hash up to date in constant time per move.
+ *
+ * The numbers are computed from the cell and the player with a fixed mixing function instead of being drawn
+ * from a random table, so they are the same in every run and on every board size. Hashes can therefore be
+ * stored and compared across programs and recorded games (positions on different board sizes are not told apart).
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class Zobrist {
+    /**
+     * Returns the number of a checker of the given player in the given cell.
+     */
+    public static long key(int player, int column, int row) {
+        // splitmix64 finalizer over the packed cell and player
+        long z = ((long) column << 32 | (long) row << 1 | player) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,102 @@
+import java.awt.Graphics;
+
+import bench.AnimationBenchmark;
+
+/**
+ * Default package side of AnimationBenchmark, see bench.Fixtures. The game is set up the same way as for
+ * DropBenchmark.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class AnimationFixture extends DropFixture implements AnimationBenchmark.Fixture {
+    // the columns checkers fall into, how many of them were played, and the time of the animation's last frame
+    private int[] dropColumns;
+    private int dropped;
+    private long clock;
+
+    @Override
+    public void setUp(int numRows, int numColumns, int drops) {
+        setUp(numRows, numColumns);
+
+        // spread the falling checkers across the board, moving right past columns that are already full (or
+        // taken by another checker), so that every one of them really falls
+        dropColumns = new int[drops];
+        boolean[] taken = new boolean[numColumns];
+
+        for (int i = 0; i < drops; i++) {
+            int column = i * numColumns / drops;
+            int tries = 0;
+
+            while (!game.canPlay(column) || taken[column]) {
+                if (++tries == numColumns) {
+                    throw new IllegalArgumentException("Not enough free columns for " + drops + " drops");
+                }
+                column = (column + 1) % numColumns;
+            }
+
+            taken[column] = true;
+            dropColumns[i] = column;
+        }
+
+        dropped = 0;
+        clock = 0;
+        startDrops();
+    }
+
+    /**
+     * Takes back the checkers of the last drops and drops them again.
+     */
+    private void startDrops() {
+        for (int i = 0; i < dropped; i++) {
+            game.undo();
+        }
+
+        animator.settle(game);
+        dropped = 0;
+
+        for (int column : dropColumns) {
+            int row = game.play(column);
+
+            if (row >= 0) {
+                animator.drop(column, row, game.getBoard().get(column, row), clock, renderer);
+                dropped++;
+            }
+        }
+    }
+
+    @Override
+    public int animationFrame(Graphics g) {
+        // a frame every 1/60 of a second of the animation, however long drawing it really takes
+        clock += 1_000_000_000L / DropAnimator.FRAMES_PER_SECOND;
+        int n = animator.frame(clock, renderer, 1);
+        int[] areas = animator.getAreas();
+
+        // same steps as FlipCanvas.renderAreas and ConnectGUI.draw
+        for (int i = 0; i < n; i++) {
+            Graphics ag = g.create();
+            ag.clipRect(areas[4 * i], areas[4 * i + 1], areas[4 * i + 2], areas[4 * i + 3]);
+            drawScene(ag);
+            ag.dispose();
+        }
+
+        if (!animator.isAnimating()) {
+            startDrops();
+        }
+
+        return n;
+    }
+
+    @Override
+    public int animationFullFrame(Graphics g) {
+        clock += 1_000_000_000L / DropAnimator.FRAMES_PER_SECOND;
+        int n = animator.frame(clock, renderer, 1);
+
+        drawScene(g);
+
+        if (!animator.isAnimating()) {
+            startDrops();
+        }
+
+        return n;
+    }
+}
@@ -0,0 +1,48 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Boards shared by the benchmark fixtures: the window's renderer and games already under way.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class BenchBoards {
+    // same window size as ConnectGUI
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+
+    /**
+     * Returns a Space Mode renderer (so the stars are included) for a board of the given size in the window.
+     */
+    public static BoardRenderer renderer(int numRows, int numColumns) {
+        ArrayList<Integer> starsX = new ArrayList<Integer>(500);
+        ArrayList<Integer> starsY = new ArrayList<Integer>(500);
+
+        for (int i = 0; i < 500; i++) {
+            starsX.add((int)(Math.random()*WIDTH));
+            starsY.add((int)(Math.random()*HEIGHT));
+        }
+
+        return new BoardRenderer(WIDTH, HEIGHT, numRows, numColumns, 20, Color.BLACK, starsX, starsY);
+    }
+
+    /**
+     * Returns a game of the given size, half full of the same random moves every time.
+     */
+    public static GameState halfFull(int numRows, int numColumns) {
+        GameState game = new GameState(numRows, numColumns);
+
+        // random moves, taking back any that ends the game so that the benchmark can keep playing
+        Random random = new Random(1);
+        while (game.getMoveCount() < numRows * numColumns / 2) {
+            game.play(random.nextInt(numColumns));
+
+            if (game.isOver()) {
+                game.undo();
+            }
+        }
+
+        return game;
+    }
+}
@@ -0,0 +1,44 @@
+import java.awt.Color;
+import java.awt.Graphics;
+
+import bench.CheckerBenchmark;
+
+/**
+ * Default package side of CheckerBenchmark, see bench.Fixtures.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class CheckerFixture implements CheckerBenchmark.Fixture {
+    // checker drawn, in the middle of the window
+    private Checker checker;
+
+    @Override
+    public void setUp(String kind) {
+        int x = BenchBoards.WIDTH / 2;
+        int y = BenchBoards.HEIGHT / 2;
+
+        switch (kind) {
+            case "SUN":
+                checker = new Checker(x, y, 1, Color.RED);
+                break;
+            case "MOON":
+                checker = new Checker(x, y, 2, Color.YELLOW);
+                break;
+            case "PLAIN":
+                checker = new Checker(x, y, 20, Color.RED);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown checker " + kind);
+        }
+    }
+
+    @Override
+    public void drawChecker(Graphics g) {
+        checker.draw(g);
+    }
+
+    @Override
+    public void drawCheckerSprite(Graphics g) {
+        checker.drawSprite(g);
+    }
+}
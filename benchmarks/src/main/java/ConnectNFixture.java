@@ -0,0 +1,35 @@
+import java.util.Random;
+
+import bench.ConnectNBenchmark;
+
+/**
+ * Default package side of ConnectNBenchmark, see bench.Fixtures.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class ConnectNFixture implements ConnectNBenchmark.Fixture {
+    // game the moves are played in
+    private ConnectNGame connectN;
+
+    @Override
+    public void setUp(int size, int n, int filled) {
+        connectN = new ConnectNGame(size, size, n);
+        Random random = new Random(1);
+
+        // random moves, taking back any that ends the game so that the benchmark can keep playing
+        while (connectN.getMoveCount() < filled) {
+            connectN.play(random.nextInt(size));
+
+            if (connectN.isOver()) {
+                connectN.undo();
+            }
+        }
+    }
+
+    @Override
+    public int playUndo(int column) {
+        int row = connectN.play(column);
+        connectN.undo();
+        return row;
+    }
+}
@@ -0,0 +1,74 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.io.File;
+import java.io.IOException;
+
+import bench.DropBenchmark;
+
+/**
+ * Default package side of DropBenchmark, see bench.Fixtures.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class DropFixture implements DropBenchmark.Fixture {
+    // game the moves are played in, and the window's renderer (in Space Mode, so the stars are included)
+    protected GameState game;
+    protected BoardRenderer renderer;
+
+    // each player's checker look, the journal and the drop animation
+    protected Checker[] looks;
+    protected MoveJournal journal;
+    protected DropAnimator animator;
+
+    @Override
+    public void setUp(int numRows, int numColumns) {
+        game = BenchBoards.halfFull(numRows, numColumns);
+        renderer = BenchBoards.renderer(numRows, numColumns);
+        looks = new Checker[] {new Checker(0, 0, 1, Color.RED), new Checker(0, 0, 2, Color.YELLOW)};
+
+        try {
+            File file = File.createTempFile("bench", ".journal");
+            file.deleteOnExit();
+            journal = new MoveJournal(file.getPath());
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Couldn't open a journal", e);
+        }
+
+        animator = new DropAnimator(numRows, numColumns);
+        animator.settle(game);
+    }
+
+    @Override
+    public int dropChecker(int column, Graphics g) {
+        // same steps as ConnectGUI.playColumn and draw
+        if (game.canPlay(column)) {
+            journal.record(1, game, column);
+        }
+
+        long start = Metrics.now();
+        int row = game.play(column);
+        Metrics.winChecked(start, game.isWin());
+
+        if (row >= 0) {
+            Metrics.played(game);
+            animator.drop(column, row, game.getBoard().get(column, row), System.nanoTime(), renderer);
+
+            drawScene(g);
+
+            game.undo();
+            animator.settle(game);
+        }
+
+        return row;
+    }
+
+    /**
+     * Draws the board with the checkers that have landed and the ones still falling.
+     */
+    protected void drawScene(Graphics g) {
+        renderer.drawBoard(g);
+        renderer.drawCheckers(g, game, looks, animator.getLanded());
+        animator.draw(g, renderer, looks);
+    }
+}
@@ -0,0 +1,28 @@
+import bench.MoveBenchmark;
+
+/**
+ * Default package side of MoveBenchmark, see bench.Fixtures.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class MoveFixture implements MoveBenchmark.Fixture {
+    // game the moves are played in
+    private GameState game;
+
+    @Override
+    public void setUp(int numRows, int numColumns) {
+        game = new GameState(numRows, numColumns);
+    }
+
+    @Override
+    public int columnAt(int x) {
+        return ConnectGUI.columnAt(x, BenchBoards.WIDTH, game.getNumColumns());
+    }
+
+    @Override
+    public int playUndo(int column) {
+        int row = game.play(column);
+        game.undo();
+        return row;
+    }
+}
@@ -0,0 +1,28 @@
+import java.awt.Graphics;
+
+import bench.RenderBenchmark;
+
+/**
+ * Default package side of RenderBenchmark, see bench.Fixtures.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class RenderFixture implements RenderBenchmark.Fixture {
+    // draws the board in Space Mode (so the stars are included)
+    private BoardRenderer renderer;
+
+    @Override
+    public void setUp(int numRows, int numColumns) {
+        renderer = BenchBoards.renderer(numRows, numColumns);
+    }
+
+    @Override
+    public void drawBoard(Graphics g) {
+        renderer.drawBoard(g);
+    }
+
+    @Override
+    public void paintBoard(Graphics g) {
+        renderer.paintBoard(g);
+    }
+}
@@ -0,0 +1,65 @@
+import bench.WinCheckBenchmark;
+
+/**
+ * Default package side of WinCheckBenchmark, see bench.Fixtures.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public class WinCheckFixture implements WinCheckBenchmark.Fixture {
+    // game the moves are played in
+    private GameState game;
+
+    // column that finishes the position
+    private int lastColumn;
+
+    @Override
+    public void setUp(int numRows, int numColumns, String direction) {
+        int[] moves;
+
+        // every position below fits on a 4x4 board, and player one makes the last move
+        switch (direction) {
+            case "VERTICAL":
+                moves = new int[] {0, 1, 0, 1, 0, 1, 0};
+                break;
+            case "HORIZONTAL":
+                moves = new int[] {0, 0, 1, 1, 2, 2, 3};
+                break;
+            case "DIAGONAL_UP":
+                moves = new int[] {0, 1, 2, 2, 1, 3, 3, 3, 2, 0, 3};
+                break;
+            case "DIAGONAL_DOWN":
+                moves = new int[] {3, 2, 1, 1, 2, 0, 0, 0, 1, 3, 0};
+                break;
+            case "MIDDLE":
+                // the missing checker is in the middle of the row
+                moves = new int[] {0, 0, 1, 1, 3, 3, 2};
+                break;
+            case "NONE":
+                moves = new int[] {0, 1, 2};
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown direction " + direction);
+        }
+
+        game = new GameState(numRows, numColumns);
+        for (int i = 0; i < moves.length - 1; i++) {
+            game.play(moves[i]);
+        }
+        lastColumn = moves[moves.length - 1];
+
+        // make sure the position does what it says
+        game.play(lastColumn);
+        if (game.isWin() != !direction.equals("NONE")) {
+            throw new IllegalStateException("Position for " + direction + " is wrong");
+        }
+        game.undo();
+    }
+
+    @Override
+    public boolean winCheck() {
+        game.play(lastColumn);
+        boolean win = game.isWin();
+        game.undo();
+        return win;
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Fails the build if the window's move path allocates again: plays the same moves as DropBenchmark (journal,
+ * move and win check, frame painted with every checker) on the standard and the largest board, and counts the
+ * bytes the thread allocates over the last MOVES of them with the JVM's per-thread allocation counter.
+ *
+ * The moves before that let the JIT compile the path, since interpreted code allocates some objects that
+ * compiled code keeps in registers. Any byte allocated after that is a failure, and the check exits with 1.
+ *
+ * It runs as part of "mvn package" in the benchmarks directory, or on its own with:
+ *     java -Djava.awt.headless=true -cp target/benchmarks.jar bench.AllocationCheck
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public final class AllocationCheck {
+    // moves played to warm up, and moves whose allocations are counted
+    private static final int WARMUP = 20_000;
+    private static final int MOVES = 2_000;
+
+    // the boards checked: the standard one and the largest the window offers
+    private static final int[][] BOARDS = {{6, 7}, {13, 14}};
+
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Allocation check skipped: this JVM doesn't count allocated bytes per thread");
+            return;
+        }
+
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+        boolean failed = false;
+
+        for (int[] board : BOARDS) {
+            int numRows = board[0];
+            int numColumns = board[1];
+
+            DropBenchmark.Fixture fixture = Fixtures.load(DropBenchmark.Fixture.class, "DropFixture");
+            fixture.setUp(numRows, numColumns);
+
+            BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+
+            int column = 0;
+            for (int i = 0; i < WARMUP; i++) {
+                column = (column + 1) % numColumns;
+                fixture.dropChecker(column, g);
+            }
+
+            // reading the counter may allocate a little itself, so that is measured first and taken off
+            long before = threads.getThreadAllocatedBytes(thread);
+            long overhead = threads.getThreadAllocatedBytes(thread) - before;
+
+            before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < MOVES; i++) {
+                column = (column + 1) % numColumns;
+                fixture.dropChecker(column, g);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+
+            g.dispose();
+
+            System.out.println(numRows + "x" + numColumns + ": " + Math.max(0, allocated) + " bytes allocated over " + MOVES + " moves");
+            failed |= allocated > 0;
+        }
+
+        if (failed) {
+            System.out.println("The move path allocates -- see DropBenchmark with -prof gc to find out where");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package bench;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures one frame of checkers falling into a half-full board: moving them on, then drawing either only the
+ * strips of their columns they fell through (as the window does) or the whole 800x600 window.
+ *
+ * The frames are drawn into an ordinary image, without a graphics card, like a kiosk with a slow one. A frame has
+ * to take well under 16 ms to keep up 60 frames per second:
+ *     java -jar target/benchmarks.jar Animation -p numRows=13 -p numColumns=14
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AnimationBenchmark {
+    @Param({"6", "13"})
+    public int numRows;
+
+    @Param({"7", "14"})
+    public int numColumns;
+
+    // the number of checkers falling at once
+    @Param({"1", "4"})
+    public int drops;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Starts a game of the given size, half full of random moves, with checkers falling into the given number
+         * of columns, spread across the board. They are dropped again whenever they have all landed.
+         */
+        void setUp(int numRows, int numColumns, int drops);
+
+        /**
+         * Moves the animation on by 1/60 of a second and redraws only the strips the checkers fell through, the
+         * way the window does.
+         * @return the number of strips redrawn
+         */
+        int animationFrame(Graphics g);
+
+        /**
+         * Moves the animation on by 1/60 of a second and redraws the whole window, to compare with animationFrame.
+         * @return the number of strips that changed
+         */
+        int animationFullFrame(Graphics g);
+    }
+
+    private Fixture fixtures;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "AnimationFixture");
+        fixtures.setUp(numRows, numColumns, drops);
+
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public int dirtyStrips() {
+        return fixtures.animationFrame(g);
+    }
+
+    @Benchmark
+    public int fullFrame() {
+        return fixtures.animationFullFrame(g);
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures drawing a single sun, moon or plain checker into an offscreen 800x600 image, shape by shape and
+ * from its cached sprite.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CheckerBenchmark {
+    @Param({"SUN", "MOON", "PLAIN"})
+    public String kind;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Picks the kind of checker (SUN, MOON, PLAIN) that is drawn, in the middle of an 800x600 window.
+         */
+        void setUp(String kind);
+
+        /**
+         * Draws the checker shape by shape.
+         */
+        void drawChecker(Graphics g);
+
+        /**
+         * Draws the checker from its cached sprite.
+         */
+        void drawCheckerSprite(Graphics g);
+    }
+
+    private Fixture fixtures;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "CheckerFixture");
+        fixtures.setUp(kind);
+
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawChecker() {
+        fixtures.drawChecker(g);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage drawCheckerSprite() {
+        fixtures.drawCheckerSprite(g);
+        return image;
+    }
+}
@@ -0,0 +1,58 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures dropping a checker (win check included) in Connect-N on square boards from 16 to 4096 cells a side,
+ * which should cost about the same whatever the size of the board.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectNBenchmark {
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    @Param({"4", "8"})
+    public int n;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Starts a Connect-N game on a square board of the given size, with a number of random moves already played.
+         */
+        void setUp(int size, int n, int filled);
+
+        /**
+         * Drops a checker into a column and takes it back.
+         * @return the row the checker landed in
+         */
+        int playUndo(int column);
+    }
+
+    private Fixture fixtures;
+
+    // next column, stepped on every call so every column gets measured
+    private int column;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "ConnectNFixture");
+        fixtures.setUp(size, n, size * size / 4);
+    }
+
+    @Benchmark
+    public int playUndo() {
+        column = (column + 7) % size;
+        return fixtures.playUndo(column);
+    }
+}
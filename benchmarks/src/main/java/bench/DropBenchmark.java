@@ -0,0 +1,77 @@
+package bench;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the whole path of a move in the window: recording it in the journal, playing it and checking for a
+ * win, and painting the frame with every checker, on a half-full board.
+ *
+ * The path should allocate nothing. Run it with the GC profiler to check: gc.alloc.rate.norm is the number of
+ * bytes allocated per move, and should be 0 (give or take a fraction of a byte of JMH's own bookkeeping):
+ *     java -jar target/benchmarks.jar Drop -prof gc
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DropBenchmark {
+    @Param({"6", "13"})
+    public int numRows;
+
+    @Param({"7", "14"})
+    public int numColumns;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Starts a Space Mode game of the given size, half full of random moves, with a window's renderer, checker
+         * looks and a move journal (in a temporary file).
+         */
+        void setUp(int numRows, int numColumns);
+
+        /**
+         * Plays a move the way the window does (journal, move and win check, frame painted with every checker),
+         * then takes it back.
+         * @return the row the checker landed in
+         */
+        int dropChecker(int column, Graphics g);
+    }
+
+    private Fixture fixtures;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    // next column, stepped on every call so every column gets measured
+    private int column;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "DropFixture");
+        fixtures.setUp(numRows, numColumns);
+
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public int dropChecker() {
+        column = (column + 1) % numColumns;
+        return fixtures.dropChecker(column, g);
+    }
+}
@@ -0,0 +1,31 @@
+package bench;
+
+/**
+ * Loads the game code that a benchmark measures.
+ *
+ * JMH only accepts benchmarks in a named package, but the game's classes live in the default package, which
+ * cannot be imported from a named package. So every benchmark declares the calls it makes as a nested Fixture
+ * interface, and a class of the default package with a matching name (WinCheckFixture for WinCheckBenchmark)
+ * implements it. That class is loaded by name, and every benchmark call is a plain interface call that the JIT
+ * can inline.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Loads the default package implementation of a benchmark's fixture.
+     * @param type      the benchmark's Fixture interface
+     * @param name      the name of the class that implements it
+     */
+    public static <T> T load(Class<T> type, String name) {
+        try {
+            return type.cast(Class.forName(name).getDeclaredConstructor().newInstance());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Couldn't load " + name, e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the parts of handleMousePress that turn a click into a move: finding the clicked column and
+ * dropping a checker into it.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+    @Param({"4", "6", "9", "13"})
+    public int numRows;
+
+    @Param({"4", "7", "10", "14"})
+    public int numColumns;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Starts an empty game on a board of the given size, in an 800x600 window.
+         */
+        void setUp(int numRows, int numColumns);
+
+        /**
+         * Finds the column a click at x falls in.
+         */
+        int columnAt(int x);
+
+        /**
+         * Drops a checker into a column and takes it back.
+         * @return the row the checker landed in
+         */
+        int playUndo(int column);
+    }
+
+    private Fixture fixtures;
+
+    // next click position and column, stepped on every call so every column gets measured
+    private int x;
+    private int column;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "MoveFixture");
+        fixtures.setUp(numRows, numColumns);
+    }
+
+    @Benchmark
+    public int columnAt() {
+        x = (x + 37) % 800;
+        return fixtures.columnAt(x);
+    }
+
+    @Benchmark
+    public int playUndo() {
+        column = (column + 1) % numColumns;
+        return fixtures.playUndo(column);
+    }
+}
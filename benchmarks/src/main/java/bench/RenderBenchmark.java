@@ -0,0 +1,77 @@
+package bench;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures drawing the empty board into an offscreen 800x600 image, from the cached image and shape by shape.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    @Param({"4", "6", "9", "13"})
+    public int numRows;
+
+    @Param({"4", "7", "10", "14"})
+    public int numColumns;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Sets up an 800x600 Space Mode renderer (stars included) for a board of the given size.
+         */
+        void setUp(int numRows, int numColumns);
+
+        /**
+         * Draws the empty board (from the cached image).
+         */
+        void drawBoard(Graphics g);
+
+        /**
+         * Draws the empty board shape by shape, without the cache.
+         */
+        void paintBoard(Graphics g);
+    }
+
+    private Fixture fixtures;
+    private BufferedImage image;
+    private Graphics2D g;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "RenderFixture");
+        fixtures.setUp(numRows, numColumns);
+
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawBoard() {
+        fixtures.drawBoard(g);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage paintBoard() {
+        fixtures.paintBoard(g);
+        return image;
+    }
+}
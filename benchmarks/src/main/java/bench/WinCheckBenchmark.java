@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures playing a move, checking it for a win and taking it back, for a win in every direction.
+ *
+ * @author James Quirk, Dartmouth DALI Developer Challenge! Spring 2023
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WinCheckBenchmark {
+    @Param({"4", "6", "9", "13"})
+    public int numRows;
+
+    @Param({"4", "7", "10", "14"})
+    public int numColumns;
+
+    @Param({"VERTICAL", "HORIZONTAL", "DIAGONAL_UP", "DIAGONAL_DOWN", "MIDDLE", "NONE"})
+    public String direction;
+
+    /**
+     * The game code measured, see Fixtures.
+     */
+    public interface Fixture {
+        /**
+         * Plays out a position on a board of the given size where the next move connects four in the given
+         * direction (VERTICAL, HORIZONTAL, DIAGONAL_UP, DIAGONAL_DOWN, MIDDLE) or doesn't (NONE).
+         */
+        void setUp(int numRows, int numColumns, String direction);
+
+        /**
+         * Plays the move set up by setUp, checks for a win, and takes the move back.
+         */
+        boolean winCheck();
+    }
+
+    private Fixture fixtures;
+
+    @Setup
+    public void setUp() {
+        fixtures = Fixtures.load(Fixture.class, "WinCheckFixture");
+        fixtures.setUp(numRows, numColumns, direction);
+    }
+
+    @Benchmark
+    public boolean winCheck() {
+        return fixtures.winCheck();
+    }
+}